@@ -0,0 +1,23 @@
+package com.example.customerapi.reactive;
+
+import com.example.customerapi.security.JwtClaimsCache;
+import com.example.customerapi.security.JwtKeyRing;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Read-only customer API on WebFlux and R2DBC, for many concurrent clients reading slowly. It verifies the
+ * tokens the main application issues and reads the schema its Flyway migrations maintain.
+ */
+@SpringBootApplication
+@EnableScheduling
+@Import({JwtKeyRing.class, JwtClaimsCache.class})
+public class ReactiveCustomerApiApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveCustomerApiApplication.class, args);
+	}
+
+}
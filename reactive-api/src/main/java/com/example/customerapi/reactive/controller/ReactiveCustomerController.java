@@ -0,0 +1,152 @@
+package com.example.customerapi.reactive.controller;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.reactive.repository.ReactiveCustomerRepository;
+import com.example.customerapi.util.AgeCalculator;
+import com.example.customerapi.util.CustomerCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The read side of the main application's {@code CustomerController}. Lists are returned as a
+ * {@link Flux} and written out only as fast as the client reads them; as {@code application/x-ndjson}
+ * every customer is flushed on its own, and the customer list may be streamed whole.
+ */
+@RestController
+@RequestMapping("/api/customers")
+public class ReactiveCustomerController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    // One query serves every request within customer.statistics.max-age; failures are not kept
+    private final Mono<Double> averageAge;
+
+    public ReactiveCustomerController(ReactiveCustomerRepository customerRepository,
+                                      @Value("${customer.pagination.default-page-size:50}") int defaultPageSize,
+                                      @Value("${customer.pagination.max-page-size:500}") int maxPageSize,
+                                      @Value("${customer.statistics.max-age:PT30S}") Duration statisticsMaxAge) {
+        this.customerRepository = customerRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.averageAge = Mono.defer(() -> customerRepository.findAverageAge(LocalDate.now()))
+                .cache(average -> statisticsMaxAge, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getCustomerById(@PathVariable UUID id) {
+        // A matching If-None-Match is answered with 304 Not Modified from the ETag
+        return customerRepository.findById(id)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.ok().eTag(versionETag(customer)).body(customer))
+                .switchIfEmpty(Mono.fromSupplier(() -> customerNotFound(id)));
+    }
+
+    /**
+     * Customers ordered by last name, one page of {@code limit} customers ({@code customer.pagination.default-page-size}
+     * by default) at a time. The {@value #NEXT_CURSOR_HEADER} header holds the cursor for the next page.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getPage(cursor, limit == null ? defaultPageSize : limit);
+    }
+
+    /**
+     * {@link #getAllCustomers} for clients asking for {@code application/x-ndjson}. Without a {@code limit}
+     * every customer after the cursor is streamed, holding a database connection until the client has read
+     * the last one.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<?>> streamAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getPage(cursor, limit);
+    }
+
+    private Mono<ResponseEntity<?>> getPage(String cursor, Integer limit) {
+        CustomerCursor after;
+        try {
+            after = cursor == null || cursor.isEmpty() ? null : CustomerCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(createErrorResponse("Invalid page request", e.getMessage(), HttpStatus.BAD_REQUEST));
+        }
+        if (limit == null) {
+            return Mono.just(ResponseEntity.ok().body(customerRepository.findPage(after, null)));
+        }
+        if (limit < 1) {
+            return Mono.just(createErrorResponse("Invalid page request", "limit must be a positive number", HttpStatus.BAD_REQUEST));
+        }
+        // The page ends at a fixed key, so the cursor stays right when customers are added before it is read
+        return customerRepository.findPageEnd(after, Math.min(limit, maxPageSize))
+                .<ResponseEntity<?>>map(end -> ResponseEntity.ok()
+                        .header(NEXT_CURSOR_HEADER, end.encode())
+                        .body(customerRepository.findPage(after, end)))
+                .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.ok().body(customerRepository.findPage(after, null))));
+    }
+
+    @GetMapping("/age-range")
+    public Mono<ResponseEntity<?>> getCustomersBetweenAges(
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if (minAge == null || maxAge == null) {
+            return Mono.just(createErrorResponse("Invalid parameters", "Both minAge and maxAge are required", HttpStatus.BAD_REQUEST));
+        }
+        if (minAge > maxAge) {
+            return Mono.just(createErrorResponse("Invalid age range", "minAge must be less than or equal to maxAge", HttpStatus.BAD_REQUEST));
+        }
+        if ((page != null && page < 0) || (size != null && size < 1)) {
+            return Mono.just(createErrorResponse("Invalid page request", "page must not be negative and size must be positive", HttpStatus.BAD_REQUEST));
+        }
+        LocalDate today = LocalDate.now();
+        Integer pageSize = page == null && size == null ? null : size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        long offset = pageSize == null || page == null ? 0 : (long) page * pageSize;
+        Flux<Customer> customers = customerRepository.findByDateOfBirthBetween(
+                AgeCalculator.earliestBirthDateForAge(today, maxAge),
+                AgeCalculator.latestBirthDateForAge(today, minAge),
+                offset, pageSize);
+        return Mono.just(ResponseEntity.ok().body(customers));
+    }
+
+    @GetMapping("/average-age")
+    public Mono<ResponseEntity<?>> getAverageAge() {
+        return averageAge
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(
+                        createErrorResponse("Failed to calculate average age", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    private static String versionETag(Customer customer) {
+        return "\"" + customer.getVersion() + "\"";
+    }
+
+    private ResponseEntity<?> customerNotFound(UUID id) {
+        return createErrorResponse("Customer not found", "Customer not found with id: " + id, HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<?> createErrorResponse(String error, String message, HttpStatus status) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", error);
+        response.put("message", message);
+        return new ResponseEntity<>(response, status);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.customerapi.reactive.repository;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.util.CustomerCursor;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Customer queries over R2DBC. Unbounded lists are streamed: rows are fetched from the database in batches
+ * of {@code customer.stream.fetch-size} as the subscriber asks for them, so a slow client holds back the
+ * query instead of the whole result piling up in memory. Such a stream keeps its connection until it has
+ * been read, though, so bounded pages are read in one go and give their connection back to the pool
+ * before a slow client has seen the first row.
+ */
+@Repository
+public class ReactiveCustomerRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, email, date_of_birth, phone_number, version";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveCustomerRepository(DatabaseClient databaseClient,
+                                      @Value("${customer.stream.fetch-size:250}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<Customer> findById(UUID id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM customers WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .one();
+    }
+
+    /**
+     * Customers ordered by {@code (last_name, id)}, starting after {@code after} and ending with
+     * {@code until}. Either bound may be {@code null}.
+     */
+    public Flux<Customer> findPage(CustomerCursor after, CustomerCursor until) {
+        List<String> conditions = new ArrayList<>();
+        if (after != null) {
+            conditions.add("(last_name, id) > (:afterLastName, :afterId)");
+        }
+        if (until != null) {
+            conditions.add("(last_name, id) <= (:untilLastName, :untilId)");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM customers" +
+                where(conditions) + " ORDER BY last_name, id");
+        if (after != null) {
+            spec = spec.bind("afterLastName", after.getLastName()).bind("afterId", after.getId());
+        }
+        if (until != null) {
+            return read(spec.bind("untilLastName", until.getLastName()).bind("untilId", until.getId()));
+        }
+        return stream(spec);
+    }
+
+    /**
+     * The position of the {@code limit}-th customer after {@code after}, if more customers follow it.
+     * Reading only the index columns up front lets the next cursor go out in the response headers before
+     * the page itself is written.
+     */
+    public Mono<CustomerCursor> findPageEnd(CustomerCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT last_name, id FROM customers" +
+                (after != null ? " WHERE (last_name, id) > (:afterLastName, :afterId)" : "") +
+                " ORDER BY last_name, id OFFSET :offset LIMIT 2");
+        if (after != null) {
+            spec = spec.bind("afterLastName", after.getLastName()).bind("afterId", after.getId());
+        }
+        return spec.bind("offset", limit - 1)
+                .map(row -> new CustomerCursor(row.get("last_name", String.class), row.get("id", UUID.class)))
+                .all()
+                .collectList()
+                .filter(keys -> keys.size() == 2)
+                .map(keys -> keys.get(0));
+    }
+
+    /**
+     * Customers born between {@code from} and {@code to}, both inclusive, ordered by date of birth. Without
+     * a {@code limit} every match is returned.
+     */
+    public Flux<Customer> findByDateOfBirthBetween(LocalDate from, LocalDate to, long offset, Integer limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM customers " +
+                        "WHERE date_of_birth BETWEEN :from AND :to ORDER BY date_of_birth, id" +
+                        (limit != null ? " OFFSET :offset LIMIT :limit" : ""))
+                .bind("from", from)
+                .bind("to", to);
+        if (limit != null) {
+            return read(spec.bind("offset", offset).bind("limit", limit));
+        }
+        return stream(spec);
+    }
+
+    /**
+     * The average age in whole years on {@code today}, or 0 without customers.
+     */
+    public Mono<Double> findAverageAge(LocalDate today) {
+        return databaseClient.sql("SELECT COALESCE(AVG(EXTRACT(YEAR FROM AGE(:today, date_of_birth))), 0)::float8 " +
+                        "AS average_age FROM customers")
+                .bind("today", today)
+                .map(row -> row.get("average_age", Double.class))
+                .one();
+    }
+
+    private Flux<Customer> stream(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveCustomerRepository::toCustomer)
+                .all();
+    }
+
+    private static Flux<Customer> read(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(ReactiveCustomerRepository::toCustomer)
+                .all()
+                .collectList()
+                .flatMapIterable(Function.identity());
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Customer toCustomer(Readable row) {
+        Customer customer = new Customer(row.get("first_name", String.class), row.get("last_name", String.class),
+                row.get("email", String.class), row.get("date_of_birth", LocalDate.class),
+                row.get("phone_number", String.class));
+        customer.setId(row.get("id", UUID.class));
+        customer.setVersion(row.get("version", Long.class));
+        return customer;
+    }
+}
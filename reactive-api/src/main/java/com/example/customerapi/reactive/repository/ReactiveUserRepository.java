@@ -0,0 +1,49 @@
+package com.example.customerapi.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The users the main application registers, read for authenticating requests.
+ */
+@Repository
+public class ReactiveUserRepository {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<UserDetails> findUserDetails(String username) {
+        return databaseClient.sql("SELECT username, password, role FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> new User(row.get("username", String.class), row.get("password", String.class),
+                        authorities(row.get("role", String.class))))
+                .one()
+                .cast(UserDetails.class);
+    }
+
+    public Mono<Long> findTokenVersion(String username) {
+        return databaseClient.sql("SELECT token_version FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> row.get("token_version", Long.class))
+                .one();
+    }
+
+    private static List<GrantedAuthority> authorities(String role) {
+        if (role == null || role.isBlank()) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role));
+    }
+}
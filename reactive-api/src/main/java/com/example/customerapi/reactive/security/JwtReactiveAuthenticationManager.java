@@ -0,0 +1,119 @@
+package com.example.customerapi.reactive.security;
+
+import com.example.customerapi.reactive.repository.ReactiveUserRepository;
+import com.example.customerapi.security.JwtClaims;
+import com.example.customerapi.security.JwtUtil;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * Authenticates bearer tokens the way {@code JwtAuthenticationFilter} does on the main application, without
+ * blocking: the token is verified by {@link JwtUtil}, then checked against the user's current token version
+ * (stateless authentication) or the user's details. Both are cached per username, and a lookup in flight is
+ * shared by every request waiting for it. Unknown usernames are not cached.
+ */
+@Component
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager, MeterBinder {
+
+    private final JwtUtil jwtUtil;
+    private final ReactiveUserRepository userRepository;
+    private final boolean statelessAuth;
+    private final AsyncCache<String, UserDetails> userDetails;
+    private final AsyncCache<String, Long> tokenVersions;
+
+    public JwtReactiveAuthenticationManager(JwtUtil jwtUtil,
+                                            ReactiveUserRepository userRepository,
+                                            @Value("${jwt.stateless-auth.enabled:false}") boolean statelessAuth,
+                                            @Value("${jwt.stateless-auth.reconcile-interval:PT1M}") Duration reconcileInterval,
+                                            @Value("${user.details-cache.max-size:10000}") long maxSize,
+                                            @Value("${user.details-cache.max-staleness:PT1M}") Duration maxStaleness) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.statelessAuth = statelessAuth;
+        this.userDetails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .buildAsync();
+        this.tokenVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(reconcileInterval)
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        return Mono.fromCallable(() -> jwtUtil.parseToken(token))
+                .onErrorMap(e -> e instanceof JwtException || e instanceof IllegalArgumentException,
+                        e -> new BadCredentialsException("Invalid token", e))
+                .filter(claims -> claims.getUsername() != null)
+                .flatMap(claims -> statelessAuth ? fromClaims(claims) : fromUserDetails(claims))
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid token")))
+                .map(user -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private Mono<UserDetails> fromUserDetails(JwtClaims claims) {
+        return cached(userDetails, claims.getUsername(), (username, executor) -> userRepository.findUserDetails(username).toFuture())
+                .filter(user -> jwtUtil.validateToken(claims, user));
+    }
+
+    private Mono<UserDetails> fromClaims(JwtClaims claims) {
+        Long version = claims.getUserVersion();
+        if (claims.isExpired() || version == null) {
+            return Mono.empty();
+        }
+        return currentTokenVersion(claims.getUsername(), version)
+                .filter(version::equals)
+                .map(current -> User.withUsername(claims.getUsername())
+                        .password("")
+                        .authorities(claims.getRoles().toArray(String[]::new))
+                        .build());
+    }
+
+    private Mono<Long> currentTokenVersion(String username, long tokenVersion) {
+        return cached(tokenVersions, username, this::loadTokenVersion)
+                .filter(current -> current >= tokenVersion)
+                // Changed, or created, since it was cached
+                .switchIfEmpty(Mono.defer(() -> {
+                    tokenVersions.synchronous().invalidate(username);
+                    return cached(tokenVersions, username, this::loadTokenVersion);
+                }));
+    }
+
+    private CompletableFuture<Long> loadTokenVersion(String username, Executor executor) {
+        return userRepository.findTokenVersion(username).toFuture();
+    }
+
+    private static <V> Mono<V> cached(AsyncCache<String, V> cache, String username,
+                                      BiFunction<String, Executor, CompletableFuture<V>> loader) {
+        // A request that goes away must not cancel the lookup other requests are waiting for
+        return Mono.fromFuture(() -> cache.get(username, loader), true);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userDetails, "userDetails");
+        CaffeineCacheMetrics.monitor(registry, tokenVersions, "userTokenVersions");
+    }
+}
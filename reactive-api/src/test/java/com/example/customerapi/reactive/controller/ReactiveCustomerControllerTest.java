@@ -0,0 +1,285 @@
+package com.example.customerapi.reactive.controller;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.reactive.BaseTest;
+import com.example.customerapi.reactive.repository.ReactiveCustomerRepository;
+import com.example.customerapi.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ReactiveCustomerControllerTest extends BaseTest {
+
+    private static final String USERNAME = "reactivetest";
+    private static final UUID JOHN_DOE_ID = UUID.fromString("e5e58977-9ae6-4b11-8041-20159856af3f");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveCustomerRepository customerRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("INSERT INTO users (id, username, password, role) VALUES (:id, :username, 'unused', 'USER') " +
+                        "ON CONFLICT (username) DO NOTHING")
+                .bind("id", UUID.randomUUID())
+                .bind("username", USERNAME)
+                .then()
+                .block();
+        authToken = jwtUtil.generateToken(User.withUsername(USERNAME).password("unused").roles("USER").build());
+    }
+
+    @Test
+    void testRequestWithoutToken_Unauthorized() {
+        webTestClient.get().uri("/api/customers")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testRequestWithInvalidToken_Unauthorized() {
+        webTestClient.get().uri("/api/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testRequestWithTokenOfUnknownUser_Unauthorized() {
+        String token = jwtUtil.generateToken(User.withUsername("nobody").password("unused").roles("USER").build());
+
+        webTestClient.get().uri("/api/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testGetCustomerById_Success() {
+        webTestClient.get().uri("/api/customers/{id}", JOHN_DOE_ID)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(JOHN_DOE_ID.toString())
+                .jsonPath("$.firstName").isEqualTo("John")
+                .jsonPath("$.dateOfBirth").isEqualTo("1990-01-01");
+    }
+
+    @Test
+    void testGetCustomerById_NotModified() {
+        webTestClient.get().uri("/api/customers/{id}", JOHN_DOE_ID)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testGetCustomerById_NotFound() {
+        UUID id = UUID.randomUUID();
+
+        webTestClient.get().uri("/api/customers/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Customer not found")
+                .jsonPath("$.message").isEqualTo("Customer not found with id: " + id);
+    }
+
+    @Test
+    void testGetAllCustomers_StreamsEveryCustomerOrderedByLastName() {
+        List<Customer> customers = getCustomers("/api/customers", MediaType.APPLICATION_NDJSON).getResponseBody();
+
+        assertNotNull(customers);
+        assertEquals(countCustomers(), customers.size());
+        assertEquals(customers.stream().sorted(Comparator.comparing(Customer::getLastName)
+                .thenComparing(customer -> customer.getId().toString())).toList(), customers);
+    }
+
+    @Test
+    void testGetAllCustomers_DefaultsToOnePage() {
+        EntityExchangeResult<List<Customer>> page = getCustomers("/api/customers", MediaType.APPLICATION_JSON);
+
+        assertNotNull(page.getResponseBody());
+        assertEquals(2, page.getResponseBody().size());
+        assertNotNull(page.getResponseHeaders().getFirst(ReactiveCustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllCustomers_NdjsonWithLimitIsPaged() {
+        EntityExchangeResult<List<Customer>> page = getCustomers("/api/customers?limit=3", MediaType.APPLICATION_NDJSON);
+
+        assertNotNull(page.getResponseBody());
+        assertEquals(3, page.getResponseBody().size());
+        assertNotNull(page.getResponseHeaders().getFirst(ReactiveCustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllCustomers_PagesFollowTheNextCursor() {
+        List<UUID> ids = new ArrayList<>();
+        String uri = "/api/customers?limit=3";
+        while (uri != null) {
+            EntityExchangeResult<List<Customer>> page = getCustomers(uri, MediaType.APPLICATION_JSON);
+            List<Customer> customers = page.getResponseBody();
+            assertNotNull(customers);
+            assertTrue(customers.size() <= 3);
+            customers.forEach(customer -> ids.add(customer.getId()));
+            String next = page.getResponseHeaders().getFirst(ReactiveCustomerController.NEXT_CURSOR_HEADER);
+            uri = next == null ? null : "/api/customers?limit=3&cursor=" + next;
+        }
+
+        assertEquals(countCustomers(), ids.size());
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+
+    @Test
+    void testGetAllCustomers_InvalidLimit() {
+        webTestClient.get().uri("/api/customers?limit=0")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid page request");
+    }
+
+    @Test
+    void testGetAllCustomers_InvalidCursor() {
+        webTestClient.get().uri("/api/customers?cursor=not-a-cursor")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid page request");
+    }
+
+    @Test
+    void testGetCustomersBetweenAges_Success() {
+        LocalDate today = LocalDate.now();
+        List<Customer> customers = getCustomers("/api/customers/age-range?minAge=30&maxAge=40", MediaType.APPLICATION_JSON)
+                .getResponseBody();
+
+        assertNotNull(customers);
+        assertFalse(customers.isEmpty());
+        customers.forEach(customer -> {
+            int age = Period.between(customer.getDateOfBirth(), today).getYears();
+            assertTrue(age >= 30 && age <= 40, "Age " + age + " is outside the range");
+        });
+        assertEquals(customers.stream().sorted(Comparator.comparing(Customer::getDateOfBirth)).toList(), customers);
+    }
+
+    @Test
+    void testGetCustomersBetweenAges_Paged() {
+        List<Customer> all = getCustomers("/api/customers/age-range?minAge=0&maxAge=200", MediaType.APPLICATION_JSON)
+                .getResponseBody();
+        List<Customer> secondPage = getCustomers("/api/customers/age-range?minAge=0&maxAge=200&page=1&size=2",
+                MediaType.APPLICATION_JSON).getResponseBody();
+
+        assertNotNull(all);
+        assertNotNull(secondPage);
+        assertEquals(all.subList(2, 4).stream().map(Customer::getId).toList(),
+                secondPage.stream().map(Customer::getId).toList());
+    }
+
+    @Test
+    void testGetCustomersBetweenAges_MissingParameter() {
+        webTestClient.get().uri("/api/customers/age-range?minAge=30")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid parameters");
+    }
+
+    @Test
+    void testGetCustomersBetweenAges_InvalidRange() {
+        webTestClient.get().uri("/api/customers/age-range?minAge=40&maxAge=30")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid age range");
+    }
+
+    @Test
+    void testGetAverageAge_Success() {
+        LocalDate today = LocalDate.now();
+        List<Customer> customers = getCustomers("/api/customers", MediaType.APPLICATION_NDJSON).getResponseBody();
+        assertNotNull(customers);
+        double expected = customers.stream()
+                .mapToInt(customer -> Period.between(customer.getDateOfBirth(), today).getYears())
+                .average()
+                .orElse(0);
+
+        Double averageAge = webTestClient.get().uri("/api/customers/average-age")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Double.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(averageAge);
+        assertEquals(expected, averageAge, 0.0001);
+    }
+
+    @Test
+    void testFindPage_EmitsOnlyWhatIsRequested() {
+        StepVerifier.create(customerRepository.findPage(null, null), 1)
+                .expectNextCount(1)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    private EntityExchangeResult<List<Customer>> getCustomers(String uri, MediaType mediaType) {
+        return webTestClient.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .accept(mediaType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .returnResult();
+    }
+
+    private long countCustomers() {
+        Long count = databaseClient.sql("SELECT COUNT(*) AS total FROM customers")
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+        assertNotNull(count);
+        return count;
+    }
+}
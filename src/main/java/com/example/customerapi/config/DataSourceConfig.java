@@ -0,0 +1,54 @@
+package com.example.customerapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With {@code spring.threads.virtual.enabled=true} every request runs on its own virtual thread, so the
+ * request thread pool no longer limits how many requests want a connection at once. The connection pool
+ * is then put behind a {@link BoundedDataSource} with as many permits as the pool has connections.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DataSourceConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    // Hikari only applies its default size once the pool starts
+                    if (hikari.getMaximumPoolSize() < 1) {
+                        hikari.setMaximumPoolSize(DEFAULT_POOL_SIZE);
+                    }
+                    return new BoundedDataSource(hikari, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BoundedDataSource bounded) {
+                Gauge.builder("jdbc.connections.waiting", bounded, BoundedDataSource::getWaitingCount)
+                        .description("Callers waiting for a database connection")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -1,15 +1,36 @@
 package com.example.customerapi.config;
 
+import com.example.customerapi.security.BoundedPasswordEncoder;
+import com.example.customerapi.security.CalibratedBCryptPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 public class PasswordConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.hashing.threads:0}") int threads,
+                                           @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${password.hashing.strength:0}") int strength,
+                                           @Value("${password.hashing.target-duration:PT0.1S}") Duration targetDuration,
+                                           @Value("${password.hashing.min-strength:10}") int minStrength,
+                                           MeterRegistry meterRegistry) {
+        CalibratedBCryptPasswordEncoder bcrypt = strength > 0
+                ? new CalibratedBCryptPasswordEncoder(strength)
+                : CalibratedBCryptPasswordEncoder.calibrate(targetDuration, minStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        // Hashes stored before the {bcrypt} prefix was introduced still verify, and are rehashed on login
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.example.customerapi.controller;
 
 import com.example.customerapi.model.User;
+import com.example.customerapi.service.RefreshTokenService;
 import com.example.customerapi.service.UserService;
 import com.example.customerapi.security.JwtUtil;
 import com.example.customerapi.dataTransferObject.LoginRequest;
 import com.example.customerapi.dataTransferObject.AuthResponse;
+import com.example.customerapi.dataTransferObject.RefreshRequest;
+import com.example.customerapi.exception.InvalidRefreshTokenException;
+import com.example.customerapi.exception.PasswordHashingRejectedException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -27,11 +31,16 @@ public class AuthenticationController {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthenticationController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserService userService) {
+    public AuthenticationController(AuthenticationManager authenticationManager,
+                                    JwtUtil jwtUtil,
+                                    UserService userService,
+                                    RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PostMapping("/register")
@@ -41,24 +50,30 @@ public class AuthenticationController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = User.class))),
             @ApiResponse(responseCode = "400", description = "Bad request - Error during registration",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations - retry later",
                     content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<?> registerUser(@RequestBody User user) {
         try {
             User savedUser = userService.saveUser(user);
             return ResponseEntity.ok(savedUser);
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error during registration: " + e.getMessage());
         }
     }
 
     @PostMapping("/login")
-    @Operation(summary = "Authenticate user", description = "Validates user credentials and returns JWT token")
+    @Operation(summary = "Authenticate user", description = "Validates user credentials and returns a JWT token and a refresh token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authentication successful",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = AuthResponse.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid username or password",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations - retry later",
                     content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
@@ -69,10 +84,28 @@ public class AuthenticationController {
 
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String token = jwtUtil.generateToken(userDetails);
+            String refreshToken = refreshTokenService.issue(userDetails.getUsername());
 
-            return ResponseEntity.ok(new AuthResponse(token));
+            return ResponseEntity.ok(new AuthResponse(token, refreshToken));
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
         }
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchanges a refresh token for a new JWT token and a new refresh token. Each refresh token can be used once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Unknown, expired, revoked or already used refresh token",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        try {
+            return ResponseEntity.ok(refreshTokenService.refresh(refreshRequest.getRefreshToken()));
+        } catch (InvalidRefreshTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+    }
 }
\ No newline at end of file
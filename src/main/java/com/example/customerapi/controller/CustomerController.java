@@ -1,9 +1,25 @@
 package com.example.customerapi.controller;
 
+import com.example.customerapi.dataTransferObject.AgeHistogramBucket;
+import com.example.customerapi.dataTransferObject.AgeSummary;
+import com.example.customerapi.dataTransferObject.CustomerBatchResult;
+import com.example.customerapi.dataTransferObject.CustomerImportResult;
+import com.example.customerapi.dataTransferObject.CustomerPage;
+import com.example.customerapi.dataTransferObject.CustomerPatchRequest;
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.dataTransferObject.CustomerTable;
+import com.example.customerapi.dataTransferObject.CustomerUpsertResult;
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import com.example.customerapi.service.AgeDistribution;
+import com.example.customerapi.service.CustomerImportService;
 import com.example.customerapi.service.CustomerService;
 import com.example.customerapi.exception.CustomerNotFoundException;
+import com.example.customerapi.exception.DuplicateCustomerEmailException;
 import com.example.customerapi.exception.InvalidCustomerDataException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,26 +27,78 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/customers")
 @Tag(name = "Customer Management", description = "Operations for customer management including CRUD operations and statistics")
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.customerapi.columnar+json";
+
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final CacheControl statisticsCacheControl;
+    private final Function<Customer, RenderedCustomer> customerRenderer = this::renderCustomer;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService,
+                              CustomerImportService customerImportService,
+                              ObjectMapper objectMapper,
+                              @Value("${customer.pagination.default-page-size:50}") int defaultPageSize,
+                              @Value("${customer.pagination.max-page-size:500}") int maxPageSize,
+                              @Value("${customer.batch.max-size:10000}") int maxBatchSize,
+                              @Value("${customer.statistics.max-age:PT30S}") Duration statisticsMaxAge) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.statisticsCacheControl = CacheControl.maxAge(statisticsMaxAge).cachePrivate();
     }
 
     @PostMapping
@@ -49,68 +117,362 @@ public class CustomerController {
         try {
             Customer createdCustomer = customerService.createCustomer(customer);
             return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
-        } catch (DataIntegrityViolationException e) {
-            if (e.getMessage().contains("customers_email_key")) {
-                return createErrorResponse("Duplicate email", "A customer with this email already exists", HttpStatus.CONFLICT);
-            }
-            return createErrorResponse("Database error", "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (DuplicateCustomerEmailException e) {
+            return createErrorResponse("Duplicate email", e.getMessage(), HttpStatus.CONFLICT);
         } catch (InvalidCustomerDataException e) {
             return createErrorResponse("Invalid customer data", e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create customers in bulk",
+            description = "Validates every customer with the same rules as a single create, then inserts the valid ones in chunks. " +
+                    "Returns one result per submitted customer, in request order; invalid items and duplicate emails do not abort the batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the per-item results",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CustomerBatchResult.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    public ResponseEntity<?> createCustomers(
+            @Parameter(description = "Customers to be created", required = true)
+            @RequestBody List<Customer> customers) {
+        if (customers == null || customers.isEmpty()) {
+            return createErrorResponse("Invalid batch", "At least one customer is required", HttpStatus.BAD_REQUEST);
+        }
+        if (customers.size() > maxBatchSize) {
+            return createErrorResponse("Invalid batch", "A batch may contain at most " + maxBatchSize + " customers", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(customerService.createCustomers(customers));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Import customers from CSV",
+            description = "Streams a CSV upload with the header columns firstName, lastName, email, dateOfBirth and phoneNumber. " +
+                    "Rows are validated like a single create and stored in chunks; every rejected row is listed in the error report " +
+                    "with its line number. Chunks are committed as they are loaded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, the body holds the counts and the error report",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CustomerImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or incomplete CSV header")
+    })
+    public ResponseEntity<StreamingResponseBody> importCustomers(HttpServletRequest request) throws IOException {
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8
+                : Charset.forName(request.getCharacterEncoding());
+        // Rejected rows are spooled to disk so a large, mostly broken upload does not pile up in memory
+        Path report = Files.createTempFile("customer-import-", ".ndjson");
+        CustomerImportResult result;
+        try (Reader csv = new InputStreamReader(request.getInputStream(), charset);
+             BufferedWriter reportWriter = Files.newBufferedWriter(report)) {
+            result = customerImportService.importCustomers(csv, error -> {
+                try {
+                    reportWriter.write(objectMapper.writeValueAsString(error));
+                    reportWriter.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(report);
+            throw e;
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream);
+                 BufferedReader errors = Files.newBufferedReader(report)) {
+                generator.writeStartObject();
+                generator.writeNumberField("imported", result.getImported());
+                generator.writeNumberField("rejected", result.getRejected());
+                generator.writeArrayFieldStart("errors");
+                String error;
+                while ((error = errors.readLine()) != null) {
+                    generator.writeRawValue(error);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            } finally {
+                Files.deleteIfExists(report);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a customer by ID", description = "Returns a customer based on the provided ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved customer",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Customer.class))),
+            @ApiResponse(responseCode = "304", description = "Customer has not changed since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
     public ResponseEntity<?> getCustomerById(
             @Parameter(description = "Customer ID", required = true)
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            @Parameter(description = "Comma separated fields to return, for example id,email (optional, all fields by default)")
+            @RequestParam(required = false) String fields,
+            WebRequest request,
+            HttpServletResponse response) throws IOException {
+        Set<CustomerField> selected;
         try {
-            Customer customer = customerService.getCustomerById(id);
-            return ResponseEntity.ok(customer);
-        } catch (CustomerNotFoundException e) {
-            return createErrorResponse("Customer not found", e.getMessage(), HttpStatus.NOT_FOUND);
+            selected = selectedFields(fields);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid fields", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        // JSON, CBOR and Smile share the version ETag, so caches must key on Accept too
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            // Revalidation only needs the version, not the customer
+            Optional<Long> version = customerService.findCustomerVersion(id);
+            if (version.isEmpty()) {
+                return customerNotFound(id);
+            }
+            if (request.checkNotModified(versionETag(version.get()))) {
+                return null;
+            }
+        }
+        if (selected == null && prefersJson(request)) {
+            // The cached bytes go out as they are, without building a response body object
+            Optional<RenderedCustomer> rendered = customerService.findRenderedCustomerById(id, customerRenderer);
+            if (rendered.isEmpty()) {
+                return customerNotFound(id);
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.ETAG, rendered.get().getETag());
+            response.setContentLength(rendered.get().getBody().length);
+            response.getOutputStream().write(rendered.get().getBody());
+            return null;
+        }
+        if (selected == null) {
+            return customerService.findCustomerById(id)
+                    .<ResponseEntity<?>>map(customer -> ResponseEntity.ok().eTag(versionETag(customer)).body(customer))
+                    .orElseGet(() -> customerNotFound(id));
         }
+        // The version is read for the ETag even when it is not selected
+        Set<CustomerField> withVersion = EnumSet.copyOf(selected);
+        withVersion.add(CustomerField.VERSION);
+        return customerService.findCustomerById(id, withVersion)
+                .<ResponseEntity<?>>map(customer -> ResponseEntity.ok().eTag(versionETag(customer))
+                        .body(fieldsOf(customer, selected)))
+                .orElseGet(() -> customerNotFound(id));
     }
 
     @GetMapping
-    @Operation(summary = "Get all customers", description = "Returns a list of all customers")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved customer list",
-            content = @Content(mediaType = "application/json",
+    @Operation(summary = "Get customers page by page",
+            description = "Returns customers ordered by last name. When more customers are available, the " +
+                    NEXT_CURSOR_HEADER + " response header holds the cursor for the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved customer list",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Customer.class)),
+                            @Content(mediaType = COLUMNAR_JSON_VALUE,
+                                    schema = @Schema(implementation = CustomerTable.class))}),
+            @ApiResponse(responseCode = "304", description = "No customer has changed since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
+    })
+    public ResponseEntity<?> getAllCustomers(
+            @Parameter(description = "Continuation token returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of customers to return, capped by the server")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Comma separated fields to return, for example id,email (optional, all fields by default)")
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return customersPage(cursor, limit, fields, request, false);
+    }
+
+    /**
+     * {@link #getAllCustomers} for clients preferring {@link #COLUMNAR_JSON_VALUE}. Mapped on its own so
+     * content negotiation, not the mere presence of the media type in Accept, picks the columnar shape.
+     */
+    @GetMapping(produces = COLUMNAR_JSON_VALUE)
+    @Operation(hidden = true)
+    public ResponseEntity<?> getAllCustomersAsTable(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return customersPage(cursor, limit, fields, request, true);
+    }
+
+    private ResponseEntity<?> customersPage(String cursor, Integer limit, String fields, WebRequest request, boolean columnar) {
+        Set<CustomerField> selected;
+        try {
+            selected = selectedFields(fields);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid fields", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        // Read before the query, so a change committed meanwhile moves the tag past this response
+        String eTag = listETag(customerService.getCustomersChangeTag());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        CustomerPage page;
+        try {
+            page = selected == null
+                    ? customerService.getCustomersPage(cursor, limit)
+                    : customerService.getCustomersPage(cursor, limit, selected);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid page request", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(customerList(page.getCustomers(), selected, columnar));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search customers by name or email",
+            description = "Returns the best matching customers for a typeahead query. Every word of the query must " +
+                    "match a word of the first name, last name or email, as a whole word, a prefix or a substring")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching customers, best match first",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CustomerSearchHit.class))),
+            @ApiResponse(responseCode = "400", description = "Blank query or invalid limit")
+    })
+    public ResponseEntity<?> searchCustomers(
+            @Parameter(description = "Search text", required = true)
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Maximum number of customers to return, capped by the server")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(customerService.searchCustomers(q, limit));
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid search", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all customers", description = "Streams every customer as newline delimited JSON, one customer per line")
+    @ApiResponse(responseCode = "200", description = "Customer export stream",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
                     schema = @Schema(implementation = Customer.class)))
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                customerService.exportCustomers(customer -> {
+                    try {
+                        generator.writeObject(customer);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update a customer", description = "Updates a customer based on the provided ID with new details")
+    @Operation(summary = "Update a customer",
+            description = "Replaces the details of a customer. When the body carries a version, or an If-Match header names one, " +
+                    "the update only applies while the stored version still matches")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer successfully updated",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Customer.class))),
             @ApiResponse(responseCode = "400", description = "Invalid customer data provided"),
             @ApiResponse(responseCode = "404", description = "Customer not found"),
-            @ApiResponse(responseCode = "409", description = "Customer with this email already exists"),
+            @ApiResponse(responseCode = "409", description = "Customer with this email already exists, or the version in the body is stale"),
+            @ApiResponse(responseCode = "412", description = "The version named by If-Match is stale"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<?> updateCustomer(
             @Parameter(description = "Customer ID", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Updated customer object", required = true)
-            @Valid @RequestBody Customer customer) {
+            @Valid @RequestBody Customer customer,
+            @Parameter(description = "ETag of the version the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            customer.setVersion(ifMatchVersion(ifMatch));
+        }
         try {
             Customer updatedCustomer = customerService.updateCustomer(id, customer);
-            return ResponseEntity.ok(updatedCustomer);
+            return ResponseEntity.ok().eTag(versionETag(updatedCustomer)).body(updatedCustomer);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage().contains("customers_email_key")) {
+                return createErrorResponse("Duplicate email", "A customer with this email already exists", HttpStatus.CONFLICT);
+            }
+            return createErrorResponse("Database error", "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflictResponse(ifMatch, e);
+        } catch (CustomerNotFoundException e) {
+            return createErrorResponse("Customer not found", e.getMessage(), HttpStatus.NOT_FOUND);
+        } catch (InvalidCustomerDataException e) {
+            return createErrorResponse("Invalid customer data", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping("/by-email/{email}")
+    @Operation(summary = "Create or update a customer by email",
+            description = "Stores the customer under the given email in a single INSERT ... ON CONFLICT statement. " +
+                    "An existing customer is only written, and its version only incremented, when a field actually changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Existing customer updated or already up to date",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Customer.class))),
+            @ApiResponse(responseCode = "201", description = "Customer created",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Customer.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid customer data provided, or the body names another email")
+    })
+    public ResponseEntity<?> upsertCustomerByEmail(
+            @Parameter(description = "Customer email", required = true)
+            @PathVariable String email,
+            @Parameter(description = "Customer details; the email may be omitted", required = true)
+            @RequestBody Customer customer) {
+        try {
+            CustomerUpsertResult result = customerService.upsertCustomerByEmail(email, customer);
+            return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK)
+                    .eTag(versionETag(result.getCustomer()))
+                    .body(result.getCustomer());
+        } catch (InvalidCustomerDataException e) {
+            return createErrorResponse("Invalid customer data", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update a customer",
+            description = "Changes only the fields present in the body, in a single statement without reading the customer first. " +
+                    "When the body carries a version, or an If-Match header names one, the update only applies while the stored version still matches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customer successfully updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Customer.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or empty patch"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "409", description = "Customer with this email already exists, or the version in the body is stale"),
+            @ApiResponse(responseCode = "412", description = "The version named by If-Match is stale")
+    })
+    public ResponseEntity<?> patchCustomer(
+            @Parameter(description = "Customer ID", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Fields to change", required = true)
+            @Valid @RequestBody CustomerPatchRequest patch,
+            @Parameter(description = "ETag of the version the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            patch.setVersion(ifMatchVersion(ifMatch));
+        }
+        try {
+            Customer updatedCustomer = customerService.patchCustomer(id, patch);
+            return ResponseEntity.ok().eTag(versionETag(updatedCustomer)).body(updatedCustomer);
         } catch (DataIntegrityViolationException e) {
             if (e.getMessage().contains("customers_email_key")) {
                 return createErrorResponse("Duplicate email", "A customer with this email already exists", HttpStatus.CONFLICT);
             }
             return createErrorResponse("Database error", "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflictResponse(ifMatch, e);
         } catch (CustomerNotFoundException e) {
             return createErrorResponse("Customer not found", e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (InvalidCustomerDataException e) {
@@ -127,12 +489,10 @@ public class CustomerController {
     public ResponseEntity<?> deleteCustomer(
             @Parameter(description = "Customer ID", required = true)
             @PathVariable UUID id) {
-        try {
-            customerService.deleteCustomer(id);
-            return ResponseEntity.noContent().build();
-        } catch (CustomerNotFoundException e) {
-            return createErrorResponse("Customer not found", e.getMessage(), HttpStatus.NOT_FOUND);
+        if (!customerService.deleteCustomer(id)) {
+            return customerNotFound(id);
         }
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/average-age")
@@ -152,12 +512,62 @@ public class CustomerController {
         }
     }
 
+    @GetMapping("/stats/summary")
+    @Operation(summary = "Get customer age summary", description = "Returns count, min, max, mean, median, p90 and p99 of customer ages")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved age summary",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AgeSummary.class))),
+            @ApiResponse(responseCode = "304", description = "Summary has not changed since the given ETag")
+    })
+    public ResponseEntity<AgeSummary> getAgeSummary(WebRequest request) {
+        AgeDistribution distribution = customerService.getAgeDistribution();
+        String eTag = "\"" + distribution.getVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(statisticsCacheControl)
+                .body(distribution.getSummary());
+    }
+
+    @GetMapping("/stats/age-histogram")
+    @Operation(summary = "Get customer age histogram", description = "Returns the number of customers per age bucket of the given width in years")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved age histogram",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AgeHistogramBucket.class))),
+            @ApiResponse(responseCode = "304", description = "Histogram has not changed since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket width")
+    })
+    public ResponseEntity<?> getAgeHistogram(
+            @Parameter(description = "Bucket width in years")
+            @RequestParam(defaultValue = "5") int bucket,
+            WebRequest request) {
+        if (bucket < 1) {
+            return createErrorResponse("Invalid bucket width", "bucket must be a positive number of years", HttpStatus.BAD_REQUEST);
+        }
+        AgeDistribution distribution = customerService.getAgeDistribution();
+        String eTag = "\"" + distribution.getVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(statisticsCacheControl)
+                .body(distribution.getHistogram(bucket));
+    }
+
     @GetMapping("/age-range")
     @Operation(summary = "Get customers within age range", description = "Returns customers with ages between the specified minimum and maximum")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved customers",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Customer.class))),
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Customer.class)),
+                            @Content(mediaType = COLUMNAR_JSON_VALUE,
+                                    schema = @Schema(implementation = CustomerTable.class))}),
+            @ApiResponse(responseCode = "304", description = "Result has not changed since the given ETag"),
             @ApiResponse(responseCode = "400", description = "Invalid age range parameters"),
             @ApiResponse(responseCode = "500", description = "Failed to retrieve customers")
     })
@@ -165,21 +575,189 @@ public class CustomerController {
             @Parameter(description = "Minimum age", required = true)
             @RequestParam() Integer minAge,
             @Parameter(description = "Maximum age", required = true)
-            @RequestParam() Integer maxAge) {
+            @RequestParam() Integer maxAge,
+            @Parameter(description = "Zero-based page number (optional, returns every match when neither page nor size is given)")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Only return the number of matching customers")
+            @RequestParam(defaultValue = "false") boolean countOnly,
+            @Parameter(description = "Comma separated fields to return, for example id,email (optional, all fields by default)")
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return customersBetweenAges(minAge, maxAge, page, size, countOnly, fields, request, false);
+    }
+
+    /**
+     * {@link #getCustomersBetweenAges} for clients preferring {@link #COLUMNAR_JSON_VALUE}.
+     */
+    @GetMapping(value = "/age-range", produces = COLUMNAR_JSON_VALUE)
+    @Operation(hidden = true)
+    public ResponseEntity<?> getCustomersBetweenAgesAsTable(
+            @RequestParam() Integer minAge,
+            @RequestParam() Integer maxAge,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean countOnly,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return customersBetweenAges(minAge, maxAge, page, size, countOnly, fields, request, true);
+    }
+
+    private ResponseEntity<?> customersBetweenAges(Integer minAge, Integer maxAge, Integer page, Integer size,
+                                                   boolean countOnly, String fields, WebRequest request, boolean columnar) {
         if (minAge == null || maxAge == null) {
             return createErrorResponse("Invalid parameters", "Both minAge and maxAge are required", HttpStatus.BAD_REQUEST);
         }
         if (minAge > maxAge) {
             return createErrorResponse("Invalid age range", "minAge must be less than or equal to maxAge", HttpStatus.BAD_REQUEST);
         }
+        if ((page != null && page < 0) || (size != null && size < 1)) {
+            return createErrorResponse("Invalid page request", "page must not be negative and size must be positive", HttpStatus.BAD_REQUEST);
+        }
+        Set<CustomerField> selected;
+        try {
+            selected = selectedFields(fields);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid fields", e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        // Ages move on at midnight even when no customer changes
+        String eTag = listETag(customerService.getCustomersChangeTag() + "-" + LocalDate.now().toEpochDay());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         try {
-            List<Customer> customers = customerService.getCustomersBetweenAges(minAge, maxAge);
-            return ResponseEntity.ok(customers);
+            if (countOnly) {
+                return ResponseEntity.ok().eTag(eTag).body(customerService.countCustomersBetweenAges(minAge, maxAge));
+            }
+            Pageable pageable = page == null && size == null
+                    ? Pageable.unpaged()
+                    : PageRequest.of(page == null ? 0 : page, size == null ? defaultPageSize : Math.min(size, maxPageSize));
+            List<Customer> customers;
+            if (selected != null) {
+                customers = customerService.getCustomersBetweenAges(minAge, maxAge, pageable, selected);
+            } else if (pageable.isUnpaged()) {
+                customers = customerService.getCustomersBetweenAges(minAge, maxAge);
+            } else {
+                customers = customerService.getCustomersBetweenAges(minAge, maxAge, pageable);
+            }
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(customerList(customers, selected, columnar));
         } catch (RuntimeException e) {
             return createErrorResponse("Failed to retrieve customers", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Lists get a weak ETag: the tag names the state of the data, not the bytes of one representation,
+     * and Tomcat only compresses responses whose ETag is weak.
+     */
+    private static String listETag(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    /**
+     * The customers as a {@link CustomerTable} when {@code columnar}, otherwise as they are, reduced to the
+     * {@code selected} fields unless that is {@code null}.
+     */
+    private static Object customerList(List<Customer> customers, Set<CustomerField> selected, boolean columnar) {
+        if (columnar) {
+            return selected == null ? new CustomerTable(customers) : new CustomerTable(selected, customers);
+        }
+        if (selected == null) {
+            return customers;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            rows.add(fieldsOf(customer, selected));
+        }
+        return rows;
+    }
+
+    /**
+     * Whether content negotiation would answer with JSON: the Accept header is missing or its most
+     * preferred media type includes {@code application/json}.
+     */
+    private static boolean prefersJson(WebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return true;
+        }
+        MediaType preferred = null;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(List.of(accept))) {
+                if (preferred == null || mediaType.getQualityValue() > preferred.getQualityValue()) {
+                    preferred = mediaType;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return preferred == null || preferred.getQualityValue() > 0 && preferred.includes(MediaType.APPLICATION_JSON);
+    }
+
+    private RenderedCustomer renderCustomer(Customer customer) {
+        try {
+            return new RenderedCustomer(versionETag(customer), objectMapper.writeValueAsBytes(customer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The fields named by a {@code fields} request parameter, or {@code null} for all of them.
+     *
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    private static Set<CustomerField> selectedFields(String fields) {
+        return fields == null ? null : CustomerField.parse(fields);
+    }
+
+    private static Map<String, Object> fieldsOf(Customer customer, Set<CustomerField> selected) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (CustomerField field : selected) {
+            values.put(field.getName(), field.get(customer));
+        }
+        return values;
+    }
+
+    private static String versionETag(Customer customer) {
+        return versionETag(customer.getVersion());
+    }
+
+    private static String versionETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version named by an If-Match header of the form {@code "<version>"}. {@code *} only requires the
+     * customer to exist; anything else can never match, so it maps to a version no row has.
+     */
+    private static Long ifMatchVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        return -1L;
+    }
+
+    private ResponseEntity<?> versionConflictResponse(String ifMatch, OptimisticLockingFailureException e) {
+        if (ifMatch != null) {
+            return createErrorResponse("Precondition failed", e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+        }
+        return createErrorResponse("Version conflict", e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    private ResponseEntity<?> customerNotFound(UUID id) {
+        return createErrorResponse("Customer not found", "Customer not found with id: " + id, HttpStatus.NOT_FOUND);
+    }
+
     private ResponseEntity<?> createErrorResponse(String error, String message, HttpStatus status) {
         Map<String, String> response = new HashMap<>();
         response.put("error", error);
@@ -0,0 +1,25 @@
+package com.example.customerapi.dataTransferObject;
+
+public class AgeHistogramBucket {
+    private final int fromAge;
+    private final int toAge;
+    private final long count;
+
+    public AgeHistogramBucket(int fromAge, int toAge, long count) {
+        this.fromAge = fromAge;
+        this.toAge = toAge;
+        this.count = count;
+    }
+
+    public int getFromAge() {
+        return fromAge;
+    }
+
+    public int getToAge() {
+        return toAge;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.customerapi.dataTransferObject;
+
+public class AgeSummary {
+    private final long count;
+    private final int min;
+    private final int max;
+    private final double mean;
+    private final double median;
+    private final int p90;
+    private final int p99;
+
+    public AgeSummary(long count, int min, int max, double mean, double median, int p90, int p99) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.median = median;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public int getP90() {
+        return p90;
+    }
+
+    public int getP99() {
+        return p99;
+    }
+}
@@ -2,12 +2,18 @@ package com.example.customerapi.dataTransferObject;
 
 public class AuthResponse {
     private final String token;
+    private final String refreshToken;
 
-    public AuthResponse(String token) {
+    public AuthResponse(String token, String refreshToken) {
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 
     public String getToken() {
         return token;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
 }
@@ -0,0 +1,52 @@
+package com.example.customerapi.dataTransferObject;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerBatchItemResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE_EMAIL,
+        FAILED
+    }
+
+    private final int index;
+    private final Status status;
+    private final UUID id;
+    private final String message;
+
+    private CustomerBatchItemResult(int index, Status status, UUID id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static CustomerBatchItemResult created(int index, UUID id) {
+        return new CustomerBatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static CustomerBatchItemResult failed(int index, Status status, String message) {
+        return new CustomerBatchItemResult(index, status, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
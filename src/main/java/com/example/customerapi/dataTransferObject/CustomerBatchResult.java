@@ -0,0 +1,29 @@
+package com.example.customerapi.dataTransferObject;
+
+import java.util.List;
+
+public class CustomerBatchResult {
+    private final int created;
+    private final int failed;
+    private final List<CustomerBatchItemResult> items;
+
+    public CustomerBatchResult(List<CustomerBatchItemResult> items) {
+        this.items = items;
+        this.created = (int) items.stream()
+                .filter(item -> item.getStatus() == CustomerBatchItemResult.Status.CREATED)
+                .count();
+        this.failed = items.size() - created;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<CustomerBatchItemResult> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.customerapi.dataTransferObject;
+
+/**
+ * A CSV row that was not imported, one entry of the import error report.
+ */
+public class CustomerImportError {
+    private final long line;
+    private final CustomerBatchItemResult.Status status;
+    private final String message;
+
+    public CustomerImportError(long line, CustomerBatchItemResult.Status status, String message) {
+        this.line = line;
+        this.status = status;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public CustomerBatchItemResult.Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
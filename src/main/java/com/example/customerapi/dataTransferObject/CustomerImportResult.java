@@ -0,0 +1,19 @@
+package com.example.customerapi.dataTransferObject;
+
+public class CustomerImportResult {
+    private final long imported;
+    private final long rejected;
+
+    public CustomerImportResult(long imported, long rejected) {
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
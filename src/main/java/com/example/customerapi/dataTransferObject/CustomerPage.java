@@ -0,0 +1,27 @@
+package com.example.customerapi.dataTransferObject;
+
+import com.example.customerapi.model.Customer;
+
+import java.util.List;
+
+public class CustomerPage {
+    private final List<Customer> customers;
+    private final String nextCursor;
+
+    public CustomerPage(List<Customer> customers, String nextCursor) {
+        this.customers = customers;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.customerapi.dataTransferObject;
+
+import com.example.customerapi.model.Customer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * Partial update of a customer. Fields left out (or null) keep their stored value; the constraints
+ * match {@link Customer} for the fields that are given.
+ */
+public class CustomerPatchRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "First name must not be blank")
+    @Size(max = 50, message = "First name must be less than 50 characters")
+    private String firstName;
+
+    @Pattern(regexp = ".*\\S.*", message = "Last name must not be blank")
+    @Size(max = 50, message = "Last name must be less than 50 characters")
+    private String lastName;
+
+    @Email(message = "Email should be valid")
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    @Size(max = 100, message = "Email must be less than 100 characters")
+    private String email;
+
+    @Past(message = "Date of birth must be in the past")
+    private LocalDate dateOfBirth;
+
+    @Pattern(regexp = "^\\+?[0-9]{10,14}$", message = "Phone number should be valid")
+    private String phoneNumber;
+
+    private Long version;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && email == null && dateOfBirth == null && phoneNumber == null;
+    }
+
+    public Customer toChanges() {
+        return new Customer(firstName, lastName, email, dateOfBirth, phoneNumber);
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.customerapi.dataTransferObject;
+
+import java.util.UUID;
+
+public class CustomerSearchHit {
+    private final UUID id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final int score;
+
+    public CustomerSearchHit(UUID id, String firstName, String lastName, String email, int score) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.score = score;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Sum over the query terms of how well each matched: 3 for a whole word, 2 for a word prefix and
+     * 1 for a substring.
+     */
+    public int getScore() {
+        return score;
+    }
+}
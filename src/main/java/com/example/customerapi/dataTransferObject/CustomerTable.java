@@ -0,0 +1,79 @@
+package com.example.customerapi.dataTransferObject;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column oriented form of a customer list: the field names once under {@code columns}, then one array
+ * of values per customer under {@code rows}, in the same order.
+ */
+@JsonSerialize(using = CustomerTable.Serializer.class)
+public class CustomerTable {
+
+    private final Set<CustomerField> columns;
+    private final List<Customer> customers;
+
+    public CustomerTable(List<Customer> customers) {
+        this(EnumSet.allOf(CustomerField.class), customers);
+    }
+
+    public CustomerTable(Set<CustomerField> columns, List<Customer> customers) {
+        this.columns = columns;
+        this.customers = customers;
+    }
+
+    public Set<CustomerField> getColumns() {
+        return columns;
+    }
+
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Writes the rows straight from the customers instead of building an intermediate array per row.
+     */
+    public static class Serializer extends StdSerializer<CustomerTable> {
+
+        public Serializer() {
+            super(CustomerTable.class);
+        }
+
+        @Override
+        public void serialize(CustomerTable table, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            CustomerField[] columns = table.getColumns().toArray(new CustomerField[0]);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("columns");
+            for (CustomerField column : columns) {
+                generator.writeString(column.getName());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("rows");
+            for (Customer customer : table.getCustomers()) {
+                generator.writeStartArray(customer, columns.length);
+                for (CustomerField column : columns) {
+                    Object value = column.get(customer);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof Long number) {
+                        generator.writeNumber(number);
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.customerapi.dataTransferObject;
+
+import com.example.customerapi.model.Customer;
+
+public class CustomerUpsertResult {
+    private final Customer customer;
+    private final boolean created;
+
+    public CustomerUpsertResult(Customer customer, boolean created) {
+        this.customer = customer;
+        this.created = created;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.customerapi.dataTransferObject;
+
+/**
+ * A customer already serialized for a response, together with its ETag. The bytes are shared between
+ * responses and must not be modified.
+ */
+public class RenderedCustomer {
+    private final String eTag;
+    private final byte[] body;
+
+    public RenderedCustomer(String eTag, byte[] body) {
+        this.eTag = eTag;
+        this.body = body;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
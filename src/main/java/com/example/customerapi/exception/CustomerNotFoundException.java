@@ -2,6 +2,7 @@ package com.example.customerapi.exception;
 
 public class CustomerNotFoundException extends RuntimeException {
     public CustomerNotFoundException(String message) {
-        super(message);
+        // Not-found is an expected outcome, not a bug; skip the stack trace
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.example.customerapi.exception;
+
+public class DuplicateCustomerEmailException extends RuntimeException {
+    public DuplicateCustomerEmailException(String message) {
+        // Raised from a statement result, not a failure; skip the stack trace
+        super(message, null, false, false);
+    }
+}
@@ -23,6 +23,7 @@ public class Customer {
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
+    @Size(max = 100, message = "Email must be less than 100 characters")
     private String email;
 
     @Past(message = "Date of birth must be in the past")
@@ -32,6 +33,9 @@ public class Customer {
     @Pattern(regexp = "^\\+?[0-9]{10,14}$", message = "Phone number should be valid")
     private String phoneNumber;
 
+    @Version
+    private Long version;
+
     public Customer() {}
 
     public Customer(String firstName, String lastName, String email, LocalDate dateOfBirth, String phoneNumber) {
@@ -89,4 +93,12 @@ public class Customer {
     public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,75 @@
+package com.example.customerapi.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The customer fields a client can select with {@code ?fields=}. The name is both the JSON property and
+ * the entity attribute.
+ */
+public enum CustomerField {
+    ID("id", Customer::getId, (customer, value) -> customer.setId((UUID) value)),
+    FIRST_NAME("firstName", Customer::getFirstName, (customer, value) -> customer.setFirstName((String) value)),
+    LAST_NAME("lastName", Customer::getLastName, (customer, value) -> customer.setLastName((String) value)),
+    EMAIL("email", Customer::getEmail, (customer, value) -> customer.setEmail((String) value)),
+    DATE_OF_BIRTH("dateOfBirth", Customer::getDateOfBirth, (customer, value) -> customer.setDateOfBirth((LocalDate) value)),
+    PHONE_NUMBER("phoneNumber", Customer::getPhoneNumber, (customer, value) -> customer.setPhoneNumber((String) value)),
+    VERSION("version", Customer::getVersion, (customer, value) -> customer.setVersion((Long) value));
+
+    private final String name;
+    private final Function<Customer, Object> getter;
+    private final BiConsumer<Customer, Object> setter;
+
+    CustomerField(String name, Function<Customer, Object> getter, BiConsumer<Customer, Object> setter) {
+        this.name = name;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object get(Customer customer) {
+        return getter.apply(customer);
+    }
+
+    public void set(Customer customer, Object value) {
+        setter.accept(customer, value);
+    }
+
+    /**
+     * Parses a comma separated list of field names such as {@code id,email}. Blank entries are ignored.
+     *
+     * @throws IllegalArgumentException if a name is unknown or no field is named
+     */
+    public static Set<CustomerField> parse(String fields) {
+        Set<CustomerField> selected = EnumSet.noneOf(CustomerField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                selected.add(byName(trimmed));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+
+    private static CustomerField byName(String name) {
+        for (CustomerField field : values()) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + name + "', expected any of "
+                + Arrays.stream(values()).map(CustomerField::getName).collect(Collectors.joining(", ")));
+    }
+}
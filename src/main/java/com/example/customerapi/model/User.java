@@ -20,6 +20,10 @@ public class User {
     @Column
     private String role;
 
+    @Version
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
     public UUID getId() {
         return id;
     }
@@ -51,4 +55,12 @@ public class User {
     public void setRole(String role) {
         this.role = role;
     }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
 }
\ No newline at end of file
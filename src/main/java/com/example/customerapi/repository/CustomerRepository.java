@@ -1,13 +1,46 @@
 package com.example.customerapi.repository;
 
 import com.example.customerapi.model.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
-public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+public interface CustomerRepository extends JpaRepository<Customer, UUID>, CustomerRepositoryCustom {
 
-    @Query("SELECT COALESCE(AVG(YEAR(CURRENT_DATE) - YEAR(c.dateOfBirth)), 0) FROM Customer c")
-    Double findAverageAge();
+    @Query("SELECT c FROM Customer c ORDER BY c.lastName, c.id")
+    List<Customer> findFirstPage(Limit limit);
+
+    @Query("SELECT c FROM Customer c " +
+            "WHERE c.lastName > :lastName OR (c.lastName = :lastName AND c.id > :id) " +
+            "ORDER BY c.lastName, c.id")
+    List<Customer> findPageAfter(@Param("lastName") String lastName, @Param("id") UUID id, Limit limit);
+
+    Slice<Customer> findByDateOfBirthBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    long countByDateOfBirthBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Changes with every committed statement that writes customers, whoever issued it. Maintained by
+     * triggers on the customers table. The count is spread over several rows so that concurrent writers
+     * rarely wait on each other; only increments are ever applied, so the sum still moves with every commit.
+     */
+    @Query(value = "SELECT MIN(CAST(generation AS TEXT)) || '-' || SUM(change_count) FROM table_changes "
+            + "WHERE table_name = 'customers'", nativeQuery = true)
+    String findChangeTag();
 }
@@ -0,0 +1,206 @@
+package com.example.customerapi.repository;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Streams every customer through a server-side cursor. Entities are detached as they are handed out,
+     * so the persistence context does not grow with the table. Must be consumed inside a transaction
+     * and closed afterwards.
+     */
+    Stream<Customer> streamAll();
+
+    /**
+     * Persists new customers and flushes them in one go, so Hibernate can send the INSERTs as JDBC
+     * batches. The persistence context is cleared afterwards. Must be called inside a transaction.
+     */
+    void insertAll(List<Customer> customers);
+
+    /**
+     * Inserts the customers whose email is not taken yet, by the table or by an earlier customer in the list,
+     * and returns those that were stored. On PostgreSQL the rows are streamed with {@code COPY} into a
+     * temporary table and moved over with {@code INSERT ... ON CONFLICT DO NOTHING}; other databases get
+     * batched INSERTs. Ids are assigned here. Must be called inside a transaction.
+     */
+    List<Customer> insertNew(List<Customer> customers);
+
+    /**
+     * Overwrites the non-null fields of {@code changes} on the customer and increments its version, in one
+     * {@code UPDATE ... RETURNING} without reading the row first. With an {@code expectedVersion} the update
+     * only applies while the stored version still matches. Must be called inside a transaction.
+     *
+     * @return the updated customer, or empty if no customer has this id (and version)
+     */
+    Optional<UpdatedCustomer> update(UUID id, Customer changes, Long expectedVersion);
+
+    /**
+     * Deletes the customer with a single {@code DELETE ... RETURNING}. Must be called inside a transaction.
+     *
+     * @return the date of birth of the deleted customer, or empty if no customer has this id
+     */
+    Optional<LocalDate> deleteReturningDateOfBirth(UUID id);
+
+    /**
+     * Inserts a new customer with {@code INSERT ... ON CONFLICT (email) DO NOTHING RETURNING}, assigning its
+     * id and version. Must be called inside a transaction.
+     *
+     * @return false, leaving the customer untouched, if the email is already taken
+     */
+    boolean insertIfEmailFree(Customer customer);
+
+    /**
+     * Stores the customer under its email in one {@code INSERT ... ON CONFLICT (email) DO UPDATE} statement.
+     * An existing customer is only written, and its version only incremented, when a field actually changes.
+     * The id and version of the stored row are set on {@code customer}. Must be called inside a transaction.
+     */
+    UpsertedCustomer upsertByEmail(Customer customer);
+
+    /**
+     * Reads a keyset page ordered by {@code (lastName, id)}, starting after the given last name and id, or
+     * from the start when {@code afterId} is {@code null}. Only the selected columns are queried; the
+     * customers returned hold just those fields and are not managed by the persistence context.
+     */
+    List<Customer> findPageFields(Set<CustomerField> fields, String afterLastName, UUID afterId, int limit);
+
+    /**
+     * Reads the selected columns of one customer, as an unmanaged customer holding just those fields.
+     */
+    Optional<Customer> findFieldsById(UUID id, Set<CustomerField> fields);
+
+    /**
+     * Reads the selected columns of the customers born within the range, ordered by date of birth and id,
+     * as unmanaged customers holding just those fields.
+     */
+    List<Customer> findFieldsByDateOfBirthBetween(Set<CustomerField> fields, LocalDate from, LocalDate to, Pageable pageable);
+
+    /**
+     * Returns the id of the current transaction, assigning one if it has none yet. Must be called inside a
+     * transaction.
+     */
+    long currentTransactionId();
+
+    /**
+     * Counts the customers per date of birth in one statement and returns the counts together with the
+     * snapshot that statement read, so a caller can tell which transactions the counts include. Must be
+     * called inside a transaction.
+     */
+    BirthDateCounts countByDateOfBirth();
+
+    class BirthDateCounts {
+        private final Map<LocalDate, Long> counts;
+        private final TransactionSnapshot snapshot;
+
+        public BirthDateCounts(Map<LocalDate, Long> counts, TransactionSnapshot snapshot) {
+            this.counts = counts;
+            this.snapshot = snapshot;
+        }
+
+        public Map<LocalDate, Long> getCounts() {
+            return counts;
+        }
+
+        public TransactionSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    /**
+     * A PostgreSQL snapshot, parsed from the {@code xmin:xmax:xip_list} text of {@code pg_current_snapshot()}.
+     */
+    class TransactionSnapshot {
+        private final long xmin;
+        private final long xmax;
+        private final Set<Long> inProgress;
+
+        public TransactionSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+            this.xmin = xmin;
+            this.xmax = xmax;
+            this.inProgress = inProgress;
+        }
+
+        public static TransactionSnapshot parse(String text) {
+            String[] parts = text.split(":", -1);
+            Set<Long> inProgress = new HashSet<>();
+            if (!parts[2].isEmpty()) {
+                for (String transactionId : parts[2].split(",")) {
+                    inProgress.add(Long.parseLong(transactionId));
+                }
+            }
+            return new TransactionSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+        }
+
+        /**
+         * Whether the changes of a committed transaction are visible in this snapshot, as
+         * {@code pg_visible_in_snapshot} would answer.
+         */
+        public boolean isVisible(long transactionId) {
+            return transactionId < xmin || transactionId < xmax && !inProgress.contains(transactionId);
+        }
+    }
+
+    class UpsertedCustomer {
+        private final Customer customer;
+        private final boolean created;
+        private final boolean written;
+        private final LocalDate previousDateOfBirth;
+
+        public UpsertedCustomer(Customer customer, boolean created, boolean written, LocalDate previousDateOfBirth) {
+            this.customer = customer;
+            this.created = created;
+            this.written = written;
+            this.previousDateOfBirth = previousDateOfBirth;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+
+        /**
+         * False if the stored customer already matched and nothing was written.
+         */
+        public boolean isWritten() {
+            return written;
+        }
+
+        /**
+         * Date of birth before the upsert, {@code null} if the customer was created.
+         */
+        public LocalDate getPreviousDateOfBirth() {
+            return previousDateOfBirth;
+        }
+    }
+
+    class UpdatedCustomer {
+        private final Customer customer;
+        private final LocalDate previousDateOfBirth;
+
+        public UpdatedCustomer(Customer customer, LocalDate previousDateOfBirth) {
+            this.customer = customer;
+            this.previousDateOfBirth = previousDateOfBirth;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public LocalDate getPreviousDateOfBirth() {
+            return previousDateOfBirth;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.customerapi.repository;
+
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.jpa.AvailableHints;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    private static final String COLUMNS = "id, first_name, last_name, email, date_of_birth, phone_number";
+
+    // Joining the row to itself exposes its values from before the update in RETURNING
+    private static final String UPDATE = "UPDATE customers c SET "
+            + "first_name = COALESCE(?, c.first_name), "
+            + "last_name = COALESCE(?, c.last_name), "
+            + "email = COALESCE(?, c.email), "
+            + "date_of_birth = COALESCE(?, c.date_of_birth), "
+            + "phone_number = COALESCE(?, c.phone_number), "
+            + "version = c.version + 1 "
+            + "FROM customers previous "
+            + "WHERE previous.id = c.id AND c.id = ? AND (CAST(? AS BIGINT) IS NULL OR c.version = ?) "
+            + "RETURNING c.id, c.first_name, c.last_name, c.email, c.date_of_birth, c.phone_number, c.version, "
+            + "previous.date_of_birth AS previous_date_of_birth";
+
+    // pg_current_snapshot() describes the snapshot the whole statement reads, counts included; the outer join
+    // keeps the snapshot row when the table is empty
+    private static final String COUNT_BY_DATE_OF_BIRTH = "SELECT CAST(pg_current_snapshot() AS TEXT) AS snapshot, "
+            + "c.date_of_birth, c.count "
+            + "FROM (SELECT 1) one LEFT JOIN "
+            + "(SELECT date_of_birth, COUNT(*) AS count FROM customers GROUP BY date_of_birth) c ON TRUE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${customer.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // xmax is zero only on a row version this statement inserted, so RETURNING tells created from updated. The
+    // previous row comes from the statement snapshot; a row committed after it is left alone for a retry to see.
+    private static final String UPSERT = "WITH previous AS ("
+            + "SELECT id, date_of_birth, version FROM customers WHERE email = ?), "
+            + "upserted AS (INSERT INTO customers (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (email) DO UPDATE SET "
+            + "first_name = EXCLUDED.first_name, "
+            + "last_name = EXCLUDED.last_name, "
+            + "date_of_birth = EXCLUDED.date_of_birth, "
+            + "phone_number = EXCLUDED.phone_number, "
+            + "version = customers.version + 1 "
+            + "WHERE EXISTS (SELECT 1 FROM previous) "
+            + "AND (customers.first_name, customers.last_name, customers.date_of_birth, customers.phone_number) "
+            + "IS DISTINCT FROM (EXCLUDED.first_name, EXCLUDED.last_name, EXCLUDED.date_of_birth, EXCLUDED.phone_number) "
+            + "RETURNING id, version, (xmax = 0) AS inserted) "
+            + "SELECT u.id, u.version, u.inserted, p.id AS previous_id, p.version AS previous_version, "
+            + "p.date_of_birth AS previous_date_of_birth "
+            + "FROM (SELECT 1) one LEFT JOIN upserted u ON TRUE LEFT JOIN previous p ON TRUE";
+
+    @Override
+    public Stream<Customer> streamAll() {
+        return entityManager.createQuery("SELECT c FROM Customer c", Customer.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public void insertAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            entityManager.persist(customer);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<Customer> insertNew(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return List.of();
+        }
+        // Pending changes must reach the database before rows are written behind Hibernate's back
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection ->
+                connection.isWrapperFor(PGConnection.class)
+                        ? copyNew(connection, customers)
+                        : persistNew(customers));
+    }
+
+    @Override
+    public Optional<UpdatedCustomer> update(UUID id, Customer changes, Long expectedVersion) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                statement.setString(1, changes.getFirstName());
+                statement.setString(2, changes.getLastName());
+                statement.setString(3, changes.getEmail());
+                statement.setObject(4, changes.getDateOfBirth());
+                statement.setString(5, changes.getPhoneNumber());
+                statement.setObject(6, id);
+                statement.setObject(7, expectedVersion, Types.BIGINT);
+                statement.setObject(8, expectedVersion, Types.BIGINT);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return Optional.empty();
+                    }
+                    Customer customer = new Customer(
+                            resultSet.getString("first_name"),
+                            resultSet.getString("last_name"),
+                            resultSet.getString("email"),
+                            resultSet.getObject("date_of_birth", LocalDate.class),
+                            resultSet.getString("phone_number"));
+                    customer.setId(resultSet.getObject("id", UUID.class));
+                    customer.setVersion(resultSet.getLong("version"));
+                    return Optional.of(new UpdatedCustomer(customer,
+                            resultSet.getObject("previous_date_of_birth", LocalDate.class)));
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean insertIfEmailFree(Customer customer) {
+        entityManager.flush();
+        UUID id = UUID.randomUUID();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO customers (" + COLUMNS + ") "
+                    + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (email) DO NOTHING RETURNING version")) {
+                setColumns(statement, id, customer);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    customer.setId(id);
+                    customer.setVersion(resultSet.getLong(1));
+                    return true;
+                }
+            }
+        });
+    }
+
+    @Override
+    public UpsertedCustomer upsertByEmail(Customer customer) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            UpsertedCustomer upserted = upsertByEmail(connection, customer);
+            if (upserted == null) {
+                // A row inserted concurrently is invisible to the statement snapshot but not to the next one
+                upserted = upsertByEmail(connection, customer);
+            }
+            if (upserted == null) {
+                throw new IllegalStateException("Customer " + customer.getEmail() + " could not be upserted");
+            }
+            return upserted;
+        });
+    }
+
+    private UpsertedCustomer upsertByEmail(Connection connection, Customer customer) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+            statement.setString(1, customer.getEmail());
+            setColumns(statement, UUID.randomUUID(), customer, 2);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                UUID id = resultSet.getObject("id", UUID.class);
+                UUID previousId = resultSet.getObject("previous_id", UUID.class);
+                LocalDate previousDateOfBirth = resultSet.getObject("previous_date_of_birth", LocalDate.class);
+                if (id != null) {
+                    customer.setId(id);
+                    customer.setVersion(resultSet.getLong("version"));
+                    return new UpsertedCustomer(customer, resultSet.getBoolean("inserted"), true, previousDateOfBirth);
+                }
+                if (previousId != null) {
+                    // Nothing changed, so nothing was written
+                    customer.setId(previousId);
+                    customer.setVersion(resultSet.getLong("previous_version"));
+                    return new UpsertedCustomer(customer, false, false, previousDateOfBirth);
+                }
+                return null;
+            }
+        }
+    }
+
+    private static void setColumns(PreparedStatement statement, UUID id, Customer customer) throws SQLException {
+        setColumns(statement, id, customer, 1);
+    }
+
+    private static void setColumns(PreparedStatement statement, UUID id, Customer customer, int first) throws SQLException {
+        statement.setObject(first, id);
+        statement.setString(first + 1, customer.getFirstName());
+        statement.setString(first + 2, customer.getLastName());
+        statement.setString(first + 3, customer.getEmail());
+        statement.setObject(first + 4, customer.getDateOfBirth());
+        statement.setString(first + 5, customer.getPhoneNumber());
+    }
+
+    @Override
+    public Optional<LocalDate> deleteReturningDateOfBirth(UUID id) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM customers WHERE id = ? RETURNING date_of_birth")) {
+                statement.setObject(1, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next()
+                            ? Optional.of(resultSet.getObject(1, LocalDate.class))
+                            : Optional.empty();
+                }
+            }
+        });
+    }
+
+    @Override
+    public long currentTransactionId() {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT CAST(pg_current_xact_id() AS TEXT)")) {
+                resultSet.next();
+                return Long.parseLong(resultSet.getString(1));
+            }
+        });
+    }
+
+    @Override
+    public BirthDateCounts countByDateOfBirth() {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(COUNT_BY_DATE_OF_BIRTH)) {
+                Map<LocalDate, Long> counts = new HashMap<>();
+                String snapshot = null;
+                while (resultSet.next()) {
+                    snapshot = resultSet.getString("snapshot");
+                    LocalDate dateOfBirth = resultSet.getObject("date_of_birth", LocalDate.class);
+                    if (dateOfBirth != null) {
+                        counts.put(dateOfBirth, resultSet.getLong("count"));
+                    }
+                }
+                return new BirthDateCounts(counts, TransactionSnapshot.parse(snapshot));
+            }
+        });
+    }
+
+    @Override
+    public List<Customer> findPageFields(Set<CustomerField> fields, String afterLastName, UUID afterId, int limit) {
+        return selectFields(fields, (builder, root) -> afterId == null ? builder.conjunction() : builder.or(
+                        builder.greaterThan(root.get("lastName"), afterLastName),
+                        builder.and(builder.equal(root.get("lastName"), afterLastName),
+                                builder.greaterThan(root.get("id"), afterId))),
+                List.of("lastName", "id"), 0, limit);
+    }
+
+    @Override
+    public Optional<Customer> findFieldsById(UUID id, Set<CustomerField> fields) {
+        return selectFields(fields, (builder, root) -> builder.equal(root.get("id"), id), List.of(), 0, 1)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<Customer> findFieldsByDateOfBirthBetween(Set<CustomerField> fields, LocalDate from, LocalDate to,
+                                                         Pageable pageable) {
+        return selectFields(fields, (builder, root) -> builder.between(root.get("dateOfBirth"), from, to),
+                List.of("dateOfBirth", "id"),
+                pageable.isPaged() ? (int) pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs a tuple query over the selected attributes only. Tuples never enter the persistence context,
+     * and each row is copied into a fresh customer that Hibernate does not know about.
+     */
+    private List<Customer> selectFields(Set<CustomerField> fields,
+                                        BiFunction<CriteriaBuilder, Root<Customer>, Predicate> where,
+                                        List<String> orderBy, int offset, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Customer> root = query.from(Customer.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (CustomerField field : fields) {
+            selections.add(root.get(field.getName()).alias(field.getName()));
+        }
+        query.multiselect(selections)
+                .where(where.apply(builder, root))
+                .orderBy(orderBy.stream().map(attribute -> builder.asc(root.get(attribute))).toList());
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        List<Customer> customers = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Customer customer = new Customer();
+            for (CustomerField field : fields) {
+                field.set(customer, tuple.get(field.getName()));
+            }
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    private List<Customer> copyNew(Connection connection, List<Customer> customers) throws SQLException {
+        StringBuilder rows = new StringBuilder(customers.size() * 96);
+        for (Customer customer : customers) {
+            customer.setId(UUID.randomUUID());
+            rows.append(customer.getId()).append(',');
+            appendCsv(rows, customer.getFirstName()).append(',');
+            appendCsv(rows, customer.getLastName()).append(',');
+            appendCsv(rows, customer.getEmail()).append(',');
+            rows.append(customer.getDateOfBirth()).append(',');
+            // An unquoted empty field is NULL in CSV mode
+            if (customer.getPhoneNumber() != null) {
+                appendCsv(rows, customer.getPhoneNumber());
+            }
+            rows.append('\n');
+        }
+        Set<UUID> inserted = new HashSet<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE customer_import (LIKE customers INCLUDING DEFAULTS) ON COMMIT DROP");
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY customer_import (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)", new StringReader(rows.toString()));
+            try (ResultSet resultSet = statement.executeQuery("INSERT INTO customers (" + COLUMNS + ") SELECT " + COLUMNS
+                    + " FROM customer_import ON CONFLICT (email) DO NOTHING RETURNING id")) {
+                while (resultSet.next()) {
+                    inserted.add(resultSet.getObject(1, UUID.class));
+                }
+            }
+            statement.execute("DROP TABLE customer_import");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Customer> stored = new ArrayList<>(inserted.size());
+        for (Customer customer : customers) {
+            if (inserted.contains(customer.getId())) {
+                stored.add(customer);
+            } else {
+                customer.setId(null);
+            }
+        }
+        return stored;
+    }
+
+    private List<Customer> persistNew(List<Customer> customers) {
+        Set<String> emails = new HashSet<>();
+        for (Customer customer : customers) {
+            emails.add(customer.getEmail());
+        }
+        Set<String> taken = new HashSet<>(entityManager
+                .createQuery("SELECT c.email FROM Customer c WHERE c.email IN :emails", String.class)
+                .setParameter("emails", emails)
+                .getResultList());
+        List<Customer> stored = new ArrayList<>();
+        for (Customer customer : customers) {
+            customer.setId(null);
+            if (taken.add(customer.getEmail())) {
+                stored.add(customer);
+            }
+        }
+        insertAll(stored);
+        return stored;
+    }
+
+    private static StringBuilder appendCsv(StringBuilder target, String value) {
+        return target.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
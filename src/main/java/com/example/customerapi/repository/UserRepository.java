@@ -2,9 +2,29 @@ package com.example.customerapi.repository;
 
 import com.example.customerapi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.username = :username")
+    Optional<Long> findTokenVersionByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(String username, String password);
+
+    @Query("SELECT u.username AS username, u.tokenVersion AS tokenVersion FROM User u")
+    List<UsernameTokenVersion> findAllTokenVersions();
+
+    interface UsernameTokenVersion {
+        String getUsername();
+
+        long getTokenVersion();
+    }
+}
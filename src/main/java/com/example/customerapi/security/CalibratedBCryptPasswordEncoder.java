@@ -0,0 +1,81 @@
+package com.example.customerapi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt at a fixed strength that asks for a rehash of every stored hash with a different cost, higher
+ * or lower. {@link #calibrate} picks the strength from the time a hash takes on the current machine.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abyx]?\\$(\\d\\d)\\$");
+    private static final int MAX_STRENGTH = 31;
+    private static final int PROBE_STRENGTH = 6;
+    private static final int PROBE_RUNS = 5;
+    private static final String PROBE_PASSWORD = "calibration-password";
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Measures a cheap hash, extrapolates (every strength step doubles the cost) to the highest strength
+     * that fits the budget and confirms it with one real hash. Never goes below {@code minStrength}, even
+     * when the machine is too slow for the budget.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration budget, int minStrength) {
+        long probeNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            probeNanos = Math.min(probeNanos, timeHash(PROBE_STRENGTH));
+        }
+        int strength = PROBE_STRENGTH;
+        while (strength < MAX_STRENGTH && (probeNanos << (strength + 1 - PROBE_STRENGTH)) <= budget.toNanos()) {
+            strength++;
+        }
+        long nanos = timeHash(strength);
+        if (nanos > budget.toNanos() && strength > PROBE_STRENGTH) {
+            strength--;
+            nanos /= 2;
+        }
+        if (strength < minStrength) {
+            logger.warn("A BCrypt hash at strength {} takes about {} ms, over the budget of {} ms",
+                    minStrength, (nanos << (minStrength - strength)) / 1_000_000, budget.toMillis());
+            strength = minStrength;
+        } else {
+            logger.info("Calibrated BCrypt strength {}, about {} ms per hash (budget {} ms)",
+                    strength, nanos / 1_000_000, budget.toMillis());
+        }
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(PROBE_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
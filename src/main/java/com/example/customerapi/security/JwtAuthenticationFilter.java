@@ -1,8 +1,10 @@
 package com.example.customerapi.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -19,31 +21,53 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final UserTokenVersions userTokenVersions;
+    private final boolean statelessAuth;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UserDetailsService userDetailsService,
+                                   UserTokenVersions userTokenVersions,
+                                   @Value("${jwt.stateless-auth.enabled:false}") boolean statelessAuth) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.userTokenVersions = userTokenVersions;
+        this.statelessAuth = statelessAuth;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,@NonNull HttpServletResponse response,@NonNull FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        JwtClaims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtUtil.extractUsername(token);
+            claims = jwtUtil.parseToken(authHeader.substring(7));
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (claims != null && claims.getUsername() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (statelessAuth) {
+                if (!claims.isExpired() && userTokenVersions.isCurrent(claims.getUsername(), claims.getUserVersion())) {
+                    authenticate(request, fromClaims(claims));
+                }
+            } else {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getUsername());
+                if (jwtUtil.validateToken(claims, userDetails)) {
+                    authenticate(request, userDetails);
+                }
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    private static UserDetails fromClaims(JwtClaims claims) {
+        return User.withUsername(claims.getUsername())
+                .password("")
+                .authorities(claims.getRoles().toArray(String[]::new))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.customerapi.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature has already been verified.
+ */
+public class JwtClaims {
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_VERSION_CLAIM = "ver";
+
+    private final String username;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final List<String> roles;
+    private final Long userVersion;
+
+    public JwtClaims(String username, Date issuedAt, Date expiration) {
+        this(username, issuedAt, expiration, List.of(), null);
+    }
+
+    public JwtClaims(String username, Date issuedAt, Date expiration, List<String> roles, Long userVersion) {
+        this.username = username;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.roles = List.copyOf(roles);
+        this.userVersion = userVersion;
+    }
+
+    static JwtClaims from(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new JwtClaims(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                claims.get(USER_VERSION_CLAIM, Long.class));
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Token version of the user when the token was issued, or {@code null} for tokens issued without one.
+     */
+    public Long getUserVersion() {
+        return userVersion;
+    }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.customerapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Verified claims keyed by the SHA-256 digest of the token, so repeated requests with the same bearer
+ * token skip signature verification and JSON parsing. Entries leave the cache when their token expires.
+ */
+@Component
+public class JwtClaimsCache implements MeterBinder {
+
+    private final Cache<ByteBuffer, JwtClaims> cache;
+
+    public JwtClaimsCache(@Value("${jwt.claims-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .recordStats()
+                .build();
+    }
+
+    public JwtClaims get(String token, Function<String, JwtClaims> parser) {
+        ByteBuffer key = digest(token);
+        JwtClaims claims = cache.getIfPresent(key);
+        if (claims == null) {
+            // Parsing happens outside the cache so invalid tokens propagate their exception and are never stored
+            claims = parser.apply(token);
+            if (claims.getExpiration() != null) {
+                cache.put(key, claims);
+            }
+        }
+        return claims;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwtClaims");
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ExpireAtTokenExpiration implements Expiry<ByteBuffer, JwtClaims> {
+        @Override
+        public long expireAfterCreate(@NonNull ByteBuffer key, @NonNull JwtClaims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull ByteBuffer key, @NonNull JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull ByteBuffer key, @NonNull JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
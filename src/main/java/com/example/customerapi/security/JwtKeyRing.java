@@ -0,0 +1,176 @@
+package com.example.customerapi.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Signing keys indexed by key id ({@code kid}). New tokens are signed with the active key; tokens signed
+ * with any key still in the ring keep verifying, so a rotation does not log anybody out. Keys and the
+ * parser are built once per ring version instead of on every call.
+ * <p>
+ * Without {@code jwt.keyring.location} the ring holds just {@code jwt.secret} under {@code jwt.key-id}.
+ * Otherwise the location points to a properties file with an {@code active} key id and one
+ * {@code key.<kid>=<secret>} entry per key; removing an entry retires that key. The file is re-read when
+ * it changes.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String KEY_PREFIX = "key.";
+
+    private final String secret;
+    private final String keyId;
+    private final String location;
+    private final JwtClaimsCache claimsCache;
+    private volatile Ring ring;
+    private volatile long loadedLastModified;
+
+    public JwtKeyRing(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.key-id:default}") String keyId,
+                      @Value("${jwt.keyring.location:}") String location,
+                      JwtClaimsCache claimsCache) {
+        this.secret = secret;
+        this.keyId = keyId;
+        this.location = location;
+        this.claimsCache = claimsCache;
+        this.ring = load();
+    }
+
+    public String getActiveKeyId() {
+        return ring.activeKeyId;
+    }
+
+    /**
+     * The active key together with its id, both taken from the same ring version.
+     */
+    public SigningKey getActiveSigningKey() {
+        return ring.signingKey;
+    }
+
+    public JwtParser getParser() {
+        return ring.parser;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keyring.reload-interval:PT1M}",
+            initialDelayString = "${jwt.keyring.reload-interval:PT1M}")
+    public void reloadIfChanged() {
+        if (location.isEmpty()) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(Path.of(location)).toMillis() != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not reload JWT key ring from {}, keeping key ids {}", location, ring.keys.keySet(), e);
+        }
+    }
+
+    public synchronized void reload() {
+        Ring previous = ring;
+        Ring reloaded = load();
+        ring = reloaded;
+        if (!reloaded.keys.entrySet().containsAll(previous.keys.entrySet())) {
+            // Claims verified with a key that has just been retired or replaced must not be served from the cache
+            claimsCache.invalidateAll();
+        }
+        logger.info("Loaded JWT key ring with key ids {}, signing with {}", reloaded.keys.keySet(), reloaded.activeKeyId);
+    }
+
+    private Ring load() {
+        if (location.isEmpty()) {
+            return new Ring(keyId, Map.of(keyId, toKey(secret)));
+        }
+        Path path = Path.of(location);
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            loadedLastModified = Files.getLastModifiedTime(path).toMillis();
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read JWT key ring from " + location, e);
+        }
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(KEY_PREFIX)) {
+                keys.put(name.substring(KEY_PREFIX.length()), toKey(properties.getProperty(name)));
+            }
+        }
+        String active = properties.getProperty(ACTIVE_PROPERTY);
+        if (active == null || !keys.containsKey(active)) {
+            throw new IllegalStateException("JWT key ring " + location + " has no key for active key id " + active);
+        }
+        return new Ring(active, keys);
+    }
+
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static final class SigningKey {
+        private final String keyId;
+        private final SecretKey key;
+
+        private SigningKey(String keyId, SecretKey key) {
+            this.keyId = keyId;
+            this.key = key;
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+
+        public SecretKey getKey() {
+            return key;
+        }
+    }
+
+    private static class Ring {
+        private final String activeKeyId;
+        private final Map<String, SecretKey> keys;
+        private final SigningKey signingKey;
+        private final JwtParser parser;
+
+        private Ring(String activeKeyId, Map<String, SecretKey> keys) {
+            this.activeKeyId = activeKeyId;
+            this.keys = Map.copyOf(keys);
+            this.signingKey = new SigningKey(activeKeyId, this.keys.get(activeKeyId));
+            this.parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+                @Override
+                protected Key locate(@NonNull JwsHeader header) {
+                    // Tokens issued before key ids were introduced carry no kid
+                    String kid = header.getKeyId() == null ? activeKeyId : header.getKeyId();
+                    SecretKey key = Ring.this.keys.get(kid);
+                    if (key == null) {
+                        throw new UnsupportedJwtException("Unknown or retired signing key id: " + kid);
+                    }
+                    return key;
+                }
+            }).build();
+        }
+    }
+}
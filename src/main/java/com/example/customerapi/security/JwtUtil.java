@@ -2,73 +2,89 @@ package com.example.customerapi.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtKeyRing keyRing;
+    private final Long expiration;
+    private final JwtClaimsCache claimsCache;
+    private final UserTokenVersions userTokenVersions;
+    private final boolean statelessAuth;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${jwt.expiration}") Long expiration,
+                   JwtClaimsCache claimsCache,
+                   UserTokenVersions userTokenVersions,
+                   @Value("${jwt.stateless-auth.enabled:false}") boolean statelessAuth) {
+        this.keyRing = keyRing;
+        this.expiration = expiration;
+        this.claimsCache = claimsCache;
+        this.userTokenVersions = userTokenVersions;
+        this.statelessAuth = statelessAuth;
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (statelessAuth) {
+            // Everything JwtAuthenticationFilter needs to authenticate requests without loading the user
+            claims.put(JwtClaims.ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+            claims.put(JwtClaims.USER_VERSION_CLAIM, userTokenVersions.getVersion(userDetails.getUsername()));
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtKeyRing.SigningKey signingKey = keyRing.getActiveSigningKey();
         return Jwts.builder()
+                .header().keyId(signingKey.getKeyId()).and()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey())
+                .signWith(signingKey.getKey())
                 .compact();
     }
 
+    /**
+     * Verifies the token signature and expiration once and returns its claims. Tokens seen before are
+     * answered from the claims cache without repeating the cryptography.
+     */
+    public JwtClaims parseToken(String token) {
+        return claimsCache.get(token, this::verifyAndParse);
+    }
+
+    public Boolean validateToken(JwtClaims claims, UserDetails userDetails) {
+        return claims.getUsername().equals(userDetails.getUsername()) && !claims.isExpired();
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseToken(token), userDetails);
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getUsername();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private JwtClaims verifyAndParse(String token) {
+        return JwtClaims.from(extractAllClaims(token));
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSigningKey())
-                .build()
+        return keyRing.getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-}
\ No newline at end of file
+}
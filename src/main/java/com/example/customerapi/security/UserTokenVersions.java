@@ -0,0 +1,97 @@
+package com.example.customerapi.security;
+
+import com.example.customerapi.model.User;
+import com.example.customerapi.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Current token version of every user, held in memory so stateless authentication can reject tokens of
+ * changed or deleted users without a database query. A user's version grows with every change to the
+ * user row. Tokens carrying an older version are revoked; a user or version not known here yet is looked
+ * up once. The table is loaded on first use and periodically reconciled, which bounds how long a change
+ * made on another instance goes unnoticed.
+ */
+@Component
+public class UserTokenVersions {
+
+    private final UserRepository userRepository;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    // Not synchronized: a virtual thread querying the database while holding a monitor pins its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public UserTokenVersions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isCurrent(String username, Long version) {
+        if (version == null) {
+            return false;
+        }
+        ensureLoaded();
+        Long current = versions.get(username);
+        if (current == null || current < version) {
+            // Created or changed on another instance since the last reconcile
+            current = refresh(username).orElse(null);
+        }
+        return version.equals(current);
+    }
+
+    public long getVersion(String username) {
+        return refresh(username)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user: " + username));
+    }
+
+    public void recordSaved(User user) {
+        versions.merge(user.getUsername(), user.getTokenVersion(), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless-auth.reconcile-interval:PT1M}",
+            initialDelayString = "${jwt.stateless-auth.reconcile-interval:PT1M}")
+    public void reconcile() {
+        if (loaded) {
+            load();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            loadLock.lock();
+            try {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+    }
+
+    private void load() {
+        Map<String, Long> fresh = new HashMap<>();
+        for (UserRepository.UsernameTokenVersion row : userRepository.findAllTokenVersions()) {
+            fresh.put(row.getUsername(), row.getTokenVersion());
+        }
+        versions.keySet().retainAll(fresh.keySet());
+        // Versions only grow, so a save recorded while the query ran is never rolled back
+        fresh.forEach((username, version) -> versions.merge(username, version, Math::max));
+    }
+
+    private Optional<Long> refresh(String username) {
+        Optional<Long> version = userRepository.findTokenVersionByUsername(username);
+        if (version.isPresent()) {
+            versions.merge(username, version.get(), Math::max);
+        } else {
+            versions.remove(username);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.AgeHistogramBucket;
+import com.example.customerapi.dataTransferObject.AgeSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable number of customers per age in whole years, derived from {@link CustomerStatistics}.
+ */
+public class AgeDistribution {
+
+    private final long[] countsByAge;
+    private final long total;
+    private final long ageSum;
+    private final String version;
+    private AgeSummary summary;
+
+    AgeDistribution(long[] countsByAge, String version) {
+        this.countsByAge = countsByAge;
+        this.version = version;
+        long count = 0;
+        long sum = 0;
+        for (int age = 0; age < countsByAge.length; age++) {
+            count += countsByAge[age];
+            sum += countsByAge[age] * age;
+        }
+        this.total = count;
+        this.ageSum = sum;
+    }
+
+    /**
+     * Changes whenever the underlying counts or the reference date change, suitable as an entity tag.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getCount(int age) {
+        return age >= 0 && age < countsByAge.length ? countsByAge[age] : 0;
+    }
+
+    public int getMaxTrackedAge() {
+        return countsByAge.length - 1;
+    }
+
+    public double getAverage() {
+        return total == 0 ? 0 : (double) ageSum / total;
+    }
+
+    public int getMin() {
+        for (int age = 0; age < countsByAge.length; age++) {
+            if (countsByAge[age] > 0) {
+                return age;
+            }
+        }
+        return 0;
+    }
+
+    public int getMax() {
+        for (int age = countsByAge.length - 1; age >= 0; age--) {
+            if (countsByAge[age] > 0) {
+                return age;
+            }
+        }
+        return 0;
+    }
+
+    public double getMedian() {
+        if (total == 0) {
+            return 0;
+        }
+        int lower = ageAtRank((total + 1) / 2);
+        int upper = ageAtRank(total / 2 + 1);
+        return (lower + upper) / 2.0;
+    }
+
+    /**
+     * Nearest-rank percentile, {@code percentile} between 0 and 100.
+     */
+    public int getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        return ageAtRank(rank);
+    }
+
+    public AgeSummary getSummary() {
+        AgeSummary current = summary;
+        if (current == null) {
+            current = new AgeSummary(total, getMin(), getMax(), getAverage(), getMedian(), getPercentile(90), getPercentile(99));
+            summary = current;
+        }
+        return current;
+    }
+
+    /**
+     * Groups ages into consecutive buckets of {@code width} years, from the bucket holding the youngest
+     * customer to the one holding the oldest. Empty buckets in between are included.
+     */
+    public List<AgeHistogramBucket> getHistogram(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        List<AgeHistogramBucket> buckets = new ArrayList<>();
+        if (total == 0) {
+            return buckets;
+        }
+        int max = getMax();
+        for (int from = getMin() / width * width; from <= max; from += width) {
+            long count = 0;
+            for (int age = from; age < from + width && age < countsByAge.length; age++) {
+                count += countsByAge[age];
+            }
+            buckets.add(new AgeHistogramBucket(from, from + width - 1, count));
+        }
+        return buckets;
+    }
+
+    private int ageAtRank(long rank) {
+        long seen = 0;
+        for (int age = 0; age < countsByAge.length; age++) {
+            seen += countsByAge[age];
+            if (seen >= rank) {
+                return age;
+            }
+        }
+        return countsByAge.length - 1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.util.CacheLoads;
+import com.example.customerapi.util.TransactionHooks;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Customers by id, so the few customers read most often do not cost a database query each time. Caffeine
+ * bounds the size and evicts with W-TinyLFU. Ids that do not exist are cached too, for a much shorter
+ * time. Writes made through {@link CustomerServiceImpl} refresh or drop the entry once they commit;
+ * changes made anywhere else become visible after at most {@code customer.cache.max-staleness}. An entry
+ * also keeps the response rendered from its customer, so that version is serialized only once.
+ */
+@Component
+public class CustomerCache implements MeterBinder {
+
+    static final String NAME = "customers";
+
+    private final AsyncCache<UUID, Entry> cache;
+
+    @Autowired
+    public CustomerCache(@Value("${customer.cache.max-size:10000}") long maxSize,
+                         @Value("${customer.cache.max-staleness:PT5M}") Duration maxStaleness,
+                         @Value("${customer.cache.negative-ttl:PT5S}") Duration negativeTtl) {
+        this(maxSize, maxStaleness, negativeTtl, Ticker.systemTicker());
+    }
+
+    CustomerCache(long maxSize, Duration maxStaleness, Duration negativeTtl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<UUID, Entry>() {
+                    @Override
+                    public long expireAfterCreate(UUID id, Entry entry, long currentTime) {
+                        return (entry.customer != null ? maxStaleness : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID id, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID id, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * The customer with this id, loaded with {@code loader} on a miss. Callers get their own copy, since
+     * customers are mutable.
+     */
+    public Optional<Customer> get(UUID id, Function<UUID, Optional<Customer>> loader) {
+        return Optional.ofNullable(load(id, loader).customer).map(CustomerCache::copy);
+    }
+
+    /**
+     * The version of the cached customer, or of what {@code loader} reads when the id is not cached. The
+     * loader's answer is not cached, as it does not hold the whole customer.
+     */
+    public Optional<Long> getVersion(UUID id, Function<UUID, Optional<Long>> loader) {
+        Entry cached = CacheLoads.getIfLoaded(cache, id);
+        if (cached == null) {
+            return loader.apply(id);
+        }
+        return cached.customer != null ? Optional.of(cached.customer.getVersion()) : Optional.empty();
+    }
+
+    /**
+     * The customer with this id as {@code renderer} turns it into a response, rendering it only the
+     * first time this version is asked for.
+     */
+    public Optional<RenderedCustomer> getRendered(UUID id, Function<UUID, Optional<Customer>> loader,
+                                                  Function<Customer, RenderedCustomer> renderer) {
+        Entry entry = load(id, loader);
+        if (entry.customer == null) {
+            return Optional.empty();
+        }
+        Optional<RenderedCustomer> rendered = entry.rendered;
+        if (rendered == null) {
+            // Racing renderings of the same version produce equal responses, so the last one may win
+            rendered = Optional.of(renderer.apply(copy(entry.customer)));
+            entry.rendered = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Replaces the entry with the saved customer once the current transaction commits.
+     */
+    public void recordSaved(Customer customer) {
+        Customer saved = copy(customer);
+        TransactionHooks.afterCommit(() -> cache.put(saved.getId(), CompletableFuture.completedFuture(new Entry(saved))));
+    }
+
+    /**
+     * Drops the entry once the current transaction commits.
+     */
+    public void recordRemoved(UUID id) {
+        TransactionHooks.afterCommit(() -> cache.synchronous().invalidate(id));
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+        Gauge.builder("cache.hit.ratio", cache, cached -> cached.synchronous().stats().hitRate())
+                .tag("cache", NAME)
+                .description("The share of lookups answered from the cache")
+                .register(registry);
+    }
+
+    private Entry load(UUID id, Function<UUID, Optional<Customer>> loader) {
+        return CacheLoads.get(cache, id, key -> new Entry(loader.apply(key).map(CustomerCache::copy).orElse(null)));
+    }
+
+    private static Customer copy(Customer customer) {
+        Customer copy = new Customer(customer.getFirstName(), customer.getLastName(), customer.getEmail(),
+                customer.getDateOfBirth(), customer.getPhoneNumber());
+        copy.setId(customer.getId());
+        copy.setVersion(customer.getVersion());
+        return copy;
+    }
+
+    /**
+     * A customer, or {@code null} for an id that does not exist, and its response once rendered.
+     */
+    private static final class Entry {
+        private final Customer customer;
+        private volatile Optional<RenderedCustomer> rendered;
+
+        private Entry(Customer customer) {
+            this.customer = customer;
+        }
+    }
+}
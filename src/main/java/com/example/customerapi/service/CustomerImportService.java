@@ -0,0 +1,280 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.CustomerBatchItemResult;
+import com.example.customerapi.dataTransferObject.CustomerImportError;
+import com.example.customerapi.dataTransferObject.CustomerImportResult;
+import com.example.customerapi.exception.InvalidCsvException;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Imports customers from CSV without holding the upload in memory. The calling thread parses records
+ * into chunks, a fixed pool validates the chunks in parallel, and the calling thread loads validated
+ * chunks in input order, one transaction each, through {@link CustomerRepository#insertNew}. At most
+ * {@code max-pending-chunks} chunks are parsed ahead of the load, which bounds memory per import.
+ */
+@Service
+public class CustomerImportService {
+
+    static final List<String> COLUMNS = List.of("firstName", "lastName", "email", "dateOfBirth", "phoneNumber");
+
+    private final CustomerRepository customerRepository;
+    private final CustomerValidator customerValidator;
+    private final CustomerStatistics customerStatistics;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerCache customerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService validationExecutor;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final int maxRecordLength;
+
+    public CustomerImportService(CustomerRepository customerRepository,
+                                 CustomerValidator customerValidator,
+                                 CustomerStatistics customerStatistics,
+                                 CustomerSearchIndex customerSearchIndex,
+                                 CustomerCache customerCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${customer.import.chunk-size:5000}") int chunkSize,
+                                 @Value("${customer.import.threads:0}") int threads,
+                                 @Value("${customer.import.max-pending-chunks:0}") int maxPendingChunks,
+                                 @Value("${customer.import.max-record-length:8192}") int maxRecordLength) {
+        this.customerRepository = customerRepository;
+        this.customerValidator = customerValidator;
+        this.customerStatistics = customerStatistics;
+        this.customerSearchIndex = customerSearchIndex;
+        this.customerCache = customerCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // One chunk loading while the pool validates the next ones keeps both sides busy
+        this.maxPendingChunks = maxPendingChunks > 0 ? maxPendingChunks : poolSize + 1;
+        this.maxRecordLength = maxRecordLength;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.validationExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "customer-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports the CSV read from {@code csv}. The first record is the header and must name the columns
+     * {@link #COLUMNS} in any order. Every row that is not stored is passed to {@code rejected}, in input
+     * order. Chunks are committed as they are loaded, so a failure part way leaves earlier chunks stored.
+     *
+     * @throws InvalidCsvException if the header is missing or incomplete
+     */
+    public CustomerImportResult importCustomers(Reader csv, Consumer<CustomerImportError> rejected) throws IOException {
+        CsvReader reader = new CsvReader(csv, maxRecordLength);
+        Header header = readHeader(reader.readRecord());
+        Deque<Future<ValidatedChunk>> pending = new ArrayDeque<>();
+        long[] counts = new long[2];
+        try {
+            List<Row> rows = new ArrayList<>(chunkSize);
+            Row row;
+            while ((row = nextRow(reader)) != null) {
+                rows.add(row);
+                if (rows.size() == chunkSize) {
+                    submit(rows, header, pending, rejected, counts);
+                    rows = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                submit(rows, header, pending, rejected, counts);
+            }
+            while (!pending.isEmpty()) {
+                load(await(pending.poll()), rejected, counts);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        return new CustomerImportResult(counts[0], counts[1]);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdownNow();
+    }
+
+    private void submit(List<Row> rows, Header header, Deque<Future<ValidatedChunk>> pending,
+                        Consumer<CustomerImportError> rejected, long[] counts) {
+        pending.add(validationExecutor.submit(() -> validate(rows, header)));
+        if (pending.size() >= maxPendingChunks) {
+            load(await(pending.poll()), rejected, counts);
+        }
+    }
+
+    private ValidatedChunk validate(List<Row> rows, Header header) {
+        ValidatedChunk chunk = new ValidatedChunk();
+        for (Row row : rows) {
+            String problem = row.problem;
+            Customer customer = null;
+            if (problem == null && row.fields.size() != header.size) {
+                problem = "Expected " + header.size + " fields but found " + row.fields.size();
+            } else if (problem == null) {
+                try {
+                    customer = toCustomer(row.fields, header.columns);
+                    problem = customerValidator.findProblem(customer);
+                } catch (DateTimeParseException e) {
+                    problem = "Date of birth must be an ISO date (yyyy-MM-dd)";
+                }
+            }
+            if (problem == null) {
+                chunk.lines.add(row.line);
+                chunk.customers.add(customer);
+            } else {
+                chunk.errors.add(new CustomerImportError(row.line, CustomerBatchItemResult.Status.INVALID, problem));
+            }
+        }
+        return chunk;
+    }
+
+    private void load(ValidatedChunk chunk, Consumer<CustomerImportError> rejected, long[] counts) {
+        if (!chunk.customers.isEmpty()) {
+            List<Customer> stored = transactionTemplate.execute(status -> {
+                List<Customer> inserted = customerRepository.insertNew(chunk.customers);
+                inserted.forEach(customer -> customerStatistics.recordAdded(customer.getDateOfBirth()));
+                return inserted;
+            });
+            Set<Customer> storedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            storedSet.addAll(stored);
+            for (int i = 0; i < chunk.customers.size(); i++) {
+                Customer customer = chunk.customers.get(i);
+                if (storedSet.contains(customer)) {
+                    customerSearchIndex.recordSaved(customer);
+                    // The version is not read back, so only a cached miss for the new id has to go
+                    customerCache.recordRemoved(customer.getId());
+                } else {
+                    chunk.errors.add(new CustomerImportError(chunk.lines.get(i),
+                            CustomerBatchItemResult.Status.DUPLICATE_EMAIL, "A customer with this email already exists"));
+                }
+            }
+            counts[0] += stored.size();
+        }
+        chunk.errors.sort(Comparator.comparingLong(CustomerImportError::getLine));
+        chunk.errors.forEach(rejected);
+        counts[1] += chunk.errors.size();
+    }
+
+    private static ValidatedChunk await(Future<ValidatedChunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating customers", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Customer validation failed", e.getCause());
+        }
+    }
+
+    private static Row nextRow(CsvReader reader) throws IOException {
+        while (true) {
+            List<String> record;
+            try {
+                record = reader.readRecord();
+            } catch (IllegalArgumentException e) {
+                // An unterminated quote swallows the rest of the input, so it is the last row; an over-long
+                // record is skipped up to the end of its line
+                return new Row(reader.getRecordLine(), null, e.getMessage());
+            }
+            if (record == null) {
+                return null;
+            }
+            if (record.size() > 1 || !record.get(0).isBlank()) {
+                return new Row(reader.getRecordLine(), record, null);
+            }
+        }
+    }
+
+    private static Header readHeader(List<String> header) {
+        if (header == null) {
+            throw new InvalidCsvException("The CSV header is missing");
+        }
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().equalsIgnoreCase(COLUMNS.get(i))) {
+                    columns[i] = j;
+                }
+            }
+            if (columns[i] < 0) {
+                throw new InvalidCsvException("The CSV header must contain the columns " + String.join(", ", COLUMNS)
+                        + " but " + COLUMNS.get(i) + " is missing");
+            }
+        }
+        return new Header(columns, header.size());
+    }
+
+    private static Customer toCustomer(List<String> fields, int[] columns) {
+        String dateOfBirth = field(fields, columns[3]);
+        return new Customer(
+                field(fields, columns[0]),
+                field(fields, columns[1]),
+                field(fields, columns[2]),
+                dateOfBirth == null ? null : LocalDate.parse(dateOfBirth),
+                field(fields, columns[4]));
+    }
+
+    private static String field(List<String> fields, int index) {
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static final class Header {
+        private final int[] columns;
+        private final int size;
+
+        private Header(int[] columns, int size) {
+            this.columns = columns;
+            this.size = size;
+        }
+    }
+
+    private static final class Row {
+        private final long line;
+        private final List<String> fields;
+        private final String problem;
+
+        private Row(long line, List<String> fields, String problem) {
+            this.line = line;
+            this.fields = fields;
+            this.problem = problem;
+        }
+    }
+
+    private static final class ValidatedChunk {
+        private final List<Long> lines = new ArrayList<>();
+        private final List<Customer> customers = new ArrayList<>();
+        private final List<CustomerImportError> errors = new ArrayList<>();
+    }
+}
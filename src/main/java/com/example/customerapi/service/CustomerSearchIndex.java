@@ -0,0 +1,494 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over the words of customer first names, last names and emails. Words are
+ * kept in a sorted dictionary, so a prefix is a range scan, and every word's trigrams are indexed for
+ * substring matches. Posting lists are int arrays of document numbers in insertion order. The index is
+ * loaded from the database at startup, kept current by {@link CustomerServiceImpl} on every committed
+ * write and periodically rebuilt, which also drops the postings of removed and replaced customers.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    static final int EXACT = 3;
+    static final int PREFIX = 2;
+    static final int SUBSTRING = 1;
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+    private static final Set<CustomerField> INDEXED_FIELDS =
+            EnumSet.of(CustomerField.ID, CustomerField.FIRST_NAME, CustomerField.LAST_NAME, CustomerField.EMAIL);
+    // Worst hit first, so the head of a full queue is the one to drop
+    private static final Comparator<Hit> WORST_FIRST =
+            Comparator.<Hit>comparingInt(hit -> hit.score).thenComparing(hit -> -hit.rank);
+
+    private final CustomerRepository customerRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Not synchronized: a virtual thread reading the table while holding a monitor pins its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Both guarded by lock; changes made while a rebuild reads the table are replayed onto the new segment
+    private Segment segment = new Segment();
+    private List<Consumer<Segment>> changesDuringRebuild;
+
+    public CustomerSearchIndex(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.search.rebuild-interval:PT1H}",
+            initialDelayString = "${customer.search.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildSegment();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildSegment() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Segment fresh = new Segment();
+        boolean loaded = false;
+        try {
+            List<Customer> page = customerRepository.findPageFields(INDEXED_FIELDS, null, null, REBUILD_PAGE_SIZE);
+            while (true) {
+                for (Customer customer : page) {
+                    fresh.put(customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getEmail());
+                }
+                if (page.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+                Customer last = page.get(page.size() - 1);
+                page = customerRepository.findPageFields(INDEXED_FIELDS, last.getLastName(), last.getId(), REBUILD_PAGE_SIZE);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    changesDuringRebuild.forEach(change -> change.accept(fresh));
+                    segment = fresh;
+                }
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Customer search index rebuilt with {} customers", fresh.docs.size());
+    }
+
+    /**
+     * Indexes the customer, replacing what was indexed under its id, once the current transaction commits.
+     */
+    public void recordSaved(Customer customer) {
+        UUID id = customer.getId();
+        String firstName = customer.getFirstName();
+        String lastName = customer.getLastName();
+        String email = customer.getEmail();
+        TransactionHooks.afterCommit(() -> apply(target -> target.put(id, firstName, lastName, email)));
+    }
+
+    /**
+     * Removes the customer from the index once the current transaction commits.
+     */
+    public void recordRemoved(UUID id) {
+        TransactionHooks.afterCommit(() -> apply(target -> target.remove(id)));
+    }
+
+    /**
+     * Finds the customers having, for every word of the query, a word that equals it, starts with it or,
+     * for query words of at least three characters, contains it. Better matches come first; equal scores
+     * keep whole words before prefixes before substrings, prefixes in dictionary order of the matched word,
+     * then insertion order.
+     */
+    public List<CustomerSearchHit> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit < 1) {
+            return List.of();
+        }
+        // The longest word is usually the most selective one, so it drives the candidates
+        String driver = terms[0];
+        for (String term : terms) {
+            if (term.length() > driver.length()) {
+                driver = term;
+            }
+        }
+        int otherTermsMax = EXACT * (terms.length - 1);
+        lock.readLock().lock();
+        try {
+            Collector collector = new Collector(segment, terms, limit);
+            IntList exact = segment.words.get(driver);
+            if (exact != null && collector.addAll(exact.values, exact.size, EXACT + otherTermsMax)) {
+                return collector.hits();
+            }
+            for (Map.Entry<String, IntList> entry
+                    : segment.words.subMap(driver, false, driver + Character.MAX_VALUE, false).entrySet()) {
+                if (collector.addAll(entry.getValue().values, entry.getValue().size, PREFIX + otherTermsMax)) {
+                    return collector.hits();
+                }
+            }
+            if (driver.length() >= 3) {
+                int[] candidates = segment.substringCandidates(driver);
+                collector.addAll(candidates, candidates.length, SUBSTRING + otherTermsMax);
+            }
+            return collector.hits();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lower case words of letters and digits, each once, in order of appearance.
+     */
+    static String[] tokenize(String... values) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String lower = value.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i <= lower.length(); i++) {
+                boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    words.add(lower.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static int matchLevel(String[] words, String term) {
+        int level = 0;
+        for (String word : words) {
+            if (word.equals(term)) {
+                return EXACT;
+            }
+            if (word.startsWith(term)) {
+                level = PREFIX;
+            } else if (level == 0 && term.length() >= 3 && word.contains(term)) {
+                level = SUBSTRING;
+            }
+        }
+        return level;
+    }
+
+    private static long trigram(String word, int start) {
+        return ((long) word.charAt(start) << 32) | ((long) word.charAt(start + 1) << 16) | word.charAt(start + 2);
+    }
+
+    /**
+     * One generation of the index. Documents are numbered in insertion order and never reused; replacing
+     * or removing a customer only clears its live bit until the next rebuild.
+     */
+    private static final class Segment {
+        private final Map<UUID, Integer> docs = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private final TreeMap<String, IntList> words = new TreeMap<>();
+        private final Map<Long, IntList> trigrams = new HashMap<>();
+        private UUID[] ids = new UUID[1024];
+        private String[] firstNames = new String[1024];
+        private String[] lastNames = new String[1024];
+        private String[] emails = new String[1024];
+        private String[][] docWords = new String[1024][];
+        private int size;
+
+        private void put(UUID id, String firstName, String lastName, String email) {
+            remove(id);
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+                docWords = Arrays.copyOf(docWords, capacity);
+            }
+            int doc = size++;
+            String[] tokens = tokenize(firstName, lastName, email);
+            for (int i = 0; i < tokens.length; i++) {
+                // Share one instance per distinct word between the dictionary and the documents
+                Map.Entry<String, IntList> entry = words.ceilingEntry(tokens[i]);
+                if (entry != null && entry.getKey().equals(tokens[i])) {
+                    tokens[i] = entry.getKey();
+                    entry.getValue().addOnce(doc);
+                } else {
+                    IntList postings = new IntList();
+                    postings.addOnce(doc);
+                    words.put(tokens[i], postings);
+                }
+                for (int start = 0; start + 3 <= tokens[i].length(); start++) {
+                    trigrams.computeIfAbsent(trigram(tokens[i], start), key -> new IntList()).addOnce(doc);
+                }
+            }
+            ids[doc] = id;
+            firstNames[doc] = firstName;
+            lastNames[doc] = lastName;
+            emails[doc] = email;
+            docWords[doc] = tokens;
+            live.set(doc);
+            docs.put(id, doc);
+        }
+
+        private void remove(UUID id) {
+            Integer doc = docs.remove(id);
+            if (doc != null) {
+                live.clear(doc);
+                docWords[doc] = null;
+            }
+        }
+
+        /**
+         * Documents having every trigram of the word, the superset of those with a word containing it.
+         */
+        private int[] substringCandidates(String term) {
+            List<IntList> postings = new ArrayList<>();
+            for (int start = 0; start + 3 <= term.length(); start++) {
+                IntList list = trigrams.get(trigram(term, start));
+                if (list == null) {
+                    return new int[0];
+                }
+                postings.add(list);
+            }
+            postings.sort(Comparator.comparingInt(list -> list.size));
+            int[] result = Arrays.copyOf(postings.get(0).values, postings.get(0).size);
+            int count = result.length;
+            for (int i = 1; i < postings.size() && count > 0; i++) {
+                count = intersect(result, count, postings.get(i));
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        /**
+         * Keeps the first {@code count} entries of {@code sorted} that are also in {@code other}, in place.
+         * Gallops through {@code other}, so a short list against a very common trigram costs
+         * {@code count * log(other.size)} rather than a walk over the whole posting list.
+         */
+        private static int intersect(int[] sorted, int count, IntList other) {
+            int kept = 0;
+            int low = 0;
+            for (int i = 0; i < count && low < other.size; i++) {
+                int target = sorted[i];
+                int step = 1;
+                int high = low;
+                while (high < other.size && other.values[high] < target) {
+                    low = high + 1;
+                    high = low + step;
+                    step <<= 1;
+                }
+                int found = Arrays.binarySearch(other.values, low, Math.min(high + 1, other.size), target);
+                if (found >= 0) {
+                    sorted[kept++] = target;
+                    low = found + 1;
+                } else {
+                    low = -found - 1;
+                }
+            }
+            return kept;
+        }
+    }
+
+    /**
+     * Keeps the best {@code limit} hits of one search. Candidates arrive in rank order, so once the queue is
+     * full of hits as good as the current tier allows, nothing later can displace them.
+     */
+    private static final class Collector {
+        private final Segment segment;
+        private final String[] terms;
+        private final int limit;
+        // Sized by the candidates looked at, not by the segment, which may hold millions of documents
+        private final IntSet seen = new IntSet();
+        private final PriorityQueue<Hit> best;
+        private long rank;
+
+        private Collector(Segment segment, String[] terms, int limit) {
+            this.segment = segment;
+            this.terms = terms;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(Math.min(limit, 1024) + 1, WORST_FIRST);
+        }
+
+        /**
+         * @return true once no later candidate can make it into the result
+         */
+        private boolean addAll(int[] docs, int count, int tierMaxScore) {
+            for (int i = 0; i < count; i++) {
+                if (full(tierMaxScore)) {
+                    return true;
+                }
+                int doc = docs[i];
+                if (!segment.live.get(doc) || !seen.add(doc)) {
+                    continue;
+                }
+                int score = score(segment.docWords[doc]);
+                if (score == 0) {
+                    continue;
+                }
+                Hit hit = new Hit(doc, score, rank++);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (WORST_FIRST.compare(hit, best.peek()) > 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+            return full(tierMaxScore);
+        }
+
+        private boolean full(int tierMaxScore) {
+            return best.size() == limit && best.peek().score >= tierMaxScore;
+        }
+
+        private int score(String[] words) {
+            int score = 0;
+            for (String term : terms) {
+                int level = matchLevel(words, term);
+                if (level == 0) {
+                    return 0;
+                }
+                score += level;
+            }
+            return score;
+        }
+
+        private List<CustomerSearchHit> hits() {
+            CustomerSearchHit[] hits = new CustomerSearchHit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                Hit hit = best.poll();
+                hits[i] = new CustomerSearchHit(segment.ids[hit.doc], segment.firstNames[hit.doc],
+                        segment.lastNames[hit.doc], segment.emails[hit.doc], hit.score);
+            }
+            return Arrays.asList(hits);
+        }
+    }
+
+    private static final class Hit {
+        private final int doc;
+        private final int score;
+        private final long rank;
+
+        private Hit(int doc, int score, long rank) {
+            this.doc = doc;
+            this.score = score;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Growable open addressing set of document numbers, stored plus one so that zero marks a free slot.
+     */
+    private static final class IntSet {
+        private int[] slots = new int[16];
+        private int size;
+
+        /**
+         * @return false if the document was already in the set
+         */
+        private boolean add(int doc) {
+            if (size * 2 >= slots.length) {
+                grow();
+            }
+            if (!insert(slots, doc + 1)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            int[] grown = new int[slots.length * 2];
+            for (int stored : slots) {
+                if (stored != 0) {
+                    insert(grown, stored);
+                }
+            }
+            slots = grown;
+        }
+
+        private static boolean insert(int[] slots, int stored) {
+            int mask = slots.length - 1;
+            // Fibonacci hashing: the top bits of the product spread clustered document numbers over the table
+            int i = (stored * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+            while (slots[i] != 0) {
+                if (slots[i] == stored) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = stored;
+            return true;
+        }
+    }
+
+    /**
+     * Growable posting list of ascending document numbers.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void addOnce(int doc) {
+            if (size > 0 && values[size - 1] == doc) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = doc;
+        }
+    }
+}
@@ -1,15 +1,44 @@
 package com.example.customerapi.service;
 
+import com.example.customerapi.dataTransferObject.CustomerBatchResult;
+import com.example.customerapi.dataTransferObject.CustomerPage;
+import com.example.customerapi.dataTransferObject.CustomerPatchRequest;
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.dataTransferObject.CustomerUpsertResult;
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public interface CustomerService {
     Customer createCustomer(Customer customer);
+    CustomerBatchResult createCustomers(List<Customer> customers);
     Customer getCustomerById(UUID id);
+    Optional<Customer> findCustomerById(UUID id);
+    Optional<Customer> findCustomerById(UUID id, Set<CustomerField> fields);
+    Optional<Long> findCustomerVersion(UUID id);
+    Optional<RenderedCustomer> findRenderedCustomerById(UUID id, Function<Customer, RenderedCustomer> renderer);
+    String getCustomersChangeTag();
     List<Customer> getAllCustomers();
+    CustomerPage getCustomersPage(String cursor, Integer limit);
+    CustomerPage getCustomersPage(String cursor, Integer limit, Set<CustomerField> fields);
+    void exportCustomers(Consumer<Customer> consumer);
     Customer updateCustomer(UUID id, Customer customer);
-    void deleteCustomer(UUID id);
+    Customer patchCustomer(UUID id, CustomerPatchRequest patch);
+    CustomerUpsertResult upsertCustomerByEmail(String email, Customer customer);
+    boolean deleteCustomer(UUID id);
     double getAverageAge();
+    AgeDistribution getAgeDistribution();
     List<Customer> getCustomersBetweenAges(int minAge, int maxAge);
+    List<Customer> getCustomersBetweenAges(int minAge, int maxAge, Pageable pageable);
+    List<Customer> getCustomersBetweenAges(int minAge, int maxAge, Pageable pageable, Set<CustomerField> fields);
+    long countCustomersBetweenAges(int minAge, int maxAge);
+    List<CustomerSearchHit> searchCustomers(String query, Integer limit);
 }
\ No newline at end of file
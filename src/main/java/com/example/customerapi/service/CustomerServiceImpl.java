@@ -1,93 +1,382 @@
 package com.example.customerapi.service;
 
+import com.example.customerapi.dataTransferObject.CustomerBatchItemResult;
+import com.example.customerapi.dataTransferObject.CustomerBatchResult;
+import com.example.customerapi.dataTransferObject.CustomerPage;
+import com.example.customerapi.dataTransferObject.CustomerPatchRequest;
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.dataTransferObject.CustomerUpsertResult;
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
 import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.repository.CustomerRepositoryCustom.UpdatedCustomer;
+import com.example.customerapi.repository.CustomerRepositoryCustom.UpsertedCustomer;
 import com.example.customerapi.exception.CustomerNotFoundException;
+import com.example.customerapi.exception.DuplicateCustomerEmailException;
 import com.example.customerapi.exception.InvalidCustomerDataException;
+import com.example.customerapi.util.AgeCalculator;
+import com.example.customerapi.util.CustomerCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDate;
-import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerStatistics customerStatistics;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerCache customerCache;
+    private final CustomerValidator customerValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int batchChunkSize;
+    private final int defaultSearchLimit;
+    private final int maxSearchLimit;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               CustomerStatistics customerStatistics,
+                               CustomerSearchIndex customerSearchIndex,
+                               CustomerCache customerCache,
+                               CustomerValidator customerValidator,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${customer.pagination.default-page-size:50}") int defaultPageSize,
+                               @Value("${customer.pagination.max-page-size:500}") int maxPageSize,
+                               @Value("${customer.batch.chunk-size:500}") int batchChunkSize,
+                               @Value("${customer.search.default-limit:10}") int defaultSearchLimit,
+                               @Value("${customer.search.max-limit:100}") int maxSearchLimit) {
         this.customerRepository = customerRepository;
+        this.customerStatistics = customerStatistics;
+        this.customerSearchIndex = customerSearchIndex;
+        this.customerCache = customerCache;
+        this.customerValidator = customerValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.batchChunkSize = batchChunkSize;
+        this.defaultSearchLimit = defaultSearchLimit;
+        this.maxSearchLimit = maxSearchLimit;
     }
 
     @Override
+    @Transactional
     public Customer createCustomer(Customer customer) {
-        validateCustomer(customer);
-        return customerRepository.save(customer);
+        customerValidator.validate(customer);
+        if (!customerRepository.insertIfEmailFree(customer)) {
+            throw new DuplicateCustomerEmailException("A customer with this email already exists");
+        }
+        customerStatistics.recordAdded(customer.getDateOfBirth());
+        customerSearchIndex.recordSaved(customer);
+        customerCache.recordSaved(customer);
+        return customer;
+    }
+
+    @Override
+    public CustomerBatchResult createCustomers(List<Customer> customers) {
+        CustomerBatchItemResult[] results = new CustomerBatchItemResult[customers.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            String error = customerValidator.findProblem(customer);
+            if (error != null) {
+                results[i] = CustomerBatchItemResult.failed(i, CustomerBatchItemResult.Status.INVALID, error);
+            } else if (!batchEmails.add(customer.getEmail())) {
+                results[i] = duplicateEmail(i);
+            } else {
+                // Batch items are always new customers, whatever id and version the client sent
+                customer.setId(null);
+                customer.setVersion(null);
+                accepted.add(i);
+            }
+        }
+        for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+            insertChunk(customers, accepted.subList(from, Math.min(from + batchChunkSize, accepted.size())), results);
+        }
+        return new CustomerBatchResult(Arrays.asList(results));
     }
 
     @Override
     public Customer getCustomerById(UUID id) {
-        return customerRepository.findById(id)
+        return findCustomerById(id)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
     }
 
+    @Override
+    public Optional<Customer> findCustomerById(UUID id) {
+        return customerCache.get(id, customerRepository::findById);
+    }
+
+    @Override
+    public Optional<Customer> findCustomerById(UUID id, Set<CustomerField> fields) {
+        return customerRepository.findFieldsById(id, fields);
+    }
+
+    @Override
+    public Optional<Long> findCustomerVersion(UUID id) {
+        return customerCache.getVersion(id, customerRepository::findVersionById);
+    }
+
+    @Override
+    public Optional<RenderedCustomer> findRenderedCustomerById(UUID id, Function<Customer, RenderedCustomer> renderer) {
+        return customerCache.getRendered(id, customerRepository::findById, renderer);
+    }
+
+    @Override
+    public String getCustomersChangeTag() {
+        return customerRepository.findChangeTag();
+    }
+
     @Override
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
 
     @Override
+    public CustomerPage getCustomersPage(String cursor, Integer limit) {
+        return readPage(cursor, limit, (after, fetchLimit) -> after == null
+                ? customerRepository.findFirstPage(Limit.of(fetchLimit))
+                : customerRepository.findPageAfter(after.getLastName(), after.getId(), Limit.of(fetchLimit)));
+    }
+
+    @Override
+    public CustomerPage getCustomersPage(String cursor, Integer limit, Set<CustomerField> fields) {
+        // The next cursor is built from the last row, so the keyset columns are read even when not selected
+        Set<CustomerField> selected = EnumSet.copyOf(fields);
+        selected.add(CustomerField.LAST_NAME);
+        selected.add(CustomerField.ID);
+        return readPage(cursor, limit, (after, fetchLimit) -> after == null
+                ? customerRepository.findPageFields(selected, null, null, fetchLimit)
+                : customerRepository.findPageFields(selected, after.getLastName(), after.getId(), fetchLimit));
+    }
+
+    private CustomerPage readPage(String cursor, Integer limit, BiFunction<CustomerCursor, Integer, List<Customer>> query) {
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("limit must be a positive number");
+        }
+        // One extra row tells us whether another page exists without a separate count query
+        List<Customer> rows = query.apply(cursor == null || cursor.isEmpty() ? null : CustomerCursor.decode(cursor), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CustomerPage(rows, null);
+        }
+        List<Customer> page = rows.subList(0, pageSize);
+        return new CustomerPage(page, CustomerCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCustomers(Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            customers.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional
     public Customer updateCustomer(UUID id, Customer customer) {
-        Customer existingCustomer = getCustomerById(id);
-        validateCustomer(customer);
-        existingCustomer.setFirstName(customer.getFirstName());
-        existingCustomer.setLastName(customer.getLastName());
-        existingCustomer.setEmail(customer.getEmail());
-        existingCustomer.setDateOfBirth(customer.getDateOfBirth());
-        existingCustomer.setPhoneNumber(customer.getPhoneNumber());
-        return customerRepository.save(existingCustomer);
+        customerValidator.validate(customer);
+        return applyUpdate(id, customer, customer.getVersion());
     }
 
     @Override
-    public void deleteCustomer(UUID id) {
-        if (!customerRepository.existsById(id)) {
-            throw new CustomerNotFoundException("Customer not found with id: " + id);
+    @Transactional
+    public Customer patchCustomer(UUID id, CustomerPatchRequest patch) {
+        if (patch.isEmpty()) {
+            throw new InvalidCustomerDataException("At least one field must be provided");
         }
-        customerRepository.deleteById(id);
+        return applyUpdate(id, patch.toChanges(), patch.getVersion());
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteCustomer(UUID id) {
+        Optional<LocalDate> dateOfBirth = customerRepository.deleteReturningDateOfBirth(id);
+        dateOfBirth.ifPresent(removed -> {
+            customerStatistics.recordRemoved(removed);
+            customerSearchIndex.recordRemoved(id);
+            customerCache.recordRemoved(id);
+        });
+        return dateOfBirth.isPresent();
     }
 
     @Override
     public double getAverageAge() {
-        return customerRepository.findAverageAge();
+        return customerStatistics.getAgeDistribution().getAverage();
+    }
+
+    @Override
+    public AgeDistribution getAgeDistribution() {
+        return customerStatistics.getAgeDistribution();
     }
 
     @Override
     public List<Customer> getCustomersBetweenAges(int minAge, int maxAge) {
-        LocalDate now = LocalDate.now();
-        return customerRepository.findAll().stream()
-                .filter(customer -> {
-                    int age = Period.between(customer.getDateOfBirth(), now).getYears();
-                    return minAge <= age && age <= maxAge;
-                })
-                .collect(Collectors.toList());
+        return getCustomersBetweenAges(minAge, maxAge, Pageable.unpaged());
+    }
+
+    @Override
+    public List<Customer> getCustomersBetweenAges(int minAge, int maxAge, Pageable pageable) {
+        LocalDate today = LocalDate.now();
+        Sort sort = Sort.by("dateOfBirth", "id");
+        Pageable sorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+        return customerRepository.findByDateOfBirthBetween(
+                AgeCalculator.earliestBirthDateForAge(today, maxAge),
+                AgeCalculator.latestBirthDateForAge(today, minAge),
+                sorted).getContent();
+    }
+
+    @Override
+    public List<Customer> getCustomersBetweenAges(int minAge, int maxAge, Pageable pageable, Set<CustomerField> fields) {
+        LocalDate today = LocalDate.now();
+        return customerRepository.findFieldsByDateOfBirthBetween(fields,
+                AgeCalculator.earliestBirthDateForAge(today, maxAge),
+                AgeCalculator.latestBirthDateForAge(today, minAge),
+                pageable);
+    }
+
+    @Override
+    public List<CustomerSearchHit> searchCustomers(String query, Integer limit) {
+        int maxHits = limit == null ? defaultSearchLimit : Math.min(limit, maxSearchLimit);
+        if (query == null || query.isBlank() || maxHits < 1) {
+            throw new IllegalArgumentException("q must not be blank and limit must be a positive number");
+        }
+        return customerSearchIndex.search(query, maxHits);
+    }
+
+    @Override
+    public long countCustomersBetweenAges(int minAge, int maxAge) {
+        LocalDate today = LocalDate.now();
+        return customerRepository.countByDateOfBirthBetween(
+                AgeCalculator.earliestBirthDateForAge(today, maxAge),
+                AgeCalculator.latestBirthDateForAge(today, minAge));
+    }
+
+    @Override
+    @Transactional
+    public CustomerUpsertResult upsertCustomerByEmail(String email, Customer customer) {
+        if (customer.getEmail() != null && !customer.getEmail().equals(email)) {
+            throw new InvalidCustomerDataException("The email in the body must match the email in the path");
+        }
+        customer.setEmail(email);
+        // The body is not bean-validated by the controller since its email may be left out
+        String problem = customerValidator.findProblem(customer);
+        if (problem != null) {
+            throw new InvalidCustomerDataException(problem);
+        }
+        UpsertedCustomer upserted = customerRepository.upsertByEmail(customer);
+        if (upserted.isCreated()) {
+            customerStatistics.recordAdded(customer.getDateOfBirth());
+        } else {
+            customerStatistics.recordChanged(upserted.getPreviousDateOfBirth(), customer.getDateOfBirth());
+        }
+        if (upserted.isWritten()) {
+            customerSearchIndex.recordSaved(upserted.getCustomer());
+            customerCache.recordSaved(upserted.getCustomer());
+        }
+        return new CustomerUpsertResult(upserted.getCustomer(), upserted.isCreated());
+    }
+
+    /**
+     * Updates in a single statement. Only when nothing was updated does a second query tell a missing
+     * customer from a stale version.
+     */
+    private Customer applyUpdate(UUID id, Customer changes, Long expectedVersion) {
+        Optional<UpdatedCustomer> updated = customerRepository.update(id, changes, expectedVersion);
+        if (updated.isEmpty()) {
+            if (expectedVersion != null && customerRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Customer " + id + " has been modified since version " + expectedVersion);
+            }
+            throw new CustomerNotFoundException("Customer not found with id: " + id);
+        }
+        Customer customer = updated.get().getCustomer();
+        customerStatistics.recordChanged(updated.get().getPreviousDateOfBirth(), customer.getDateOfBirth());
+        customerSearchIndex.recordSaved(customer);
+        customerCache.recordSaved(customer);
+        return customer;
     }
 
-    private void validateCustomer(Customer customer) {
-        if (customer.getFirstName() == null || customer.getFirstName().trim().isEmpty()) {
-            throw new InvalidCustomerDataException("First name is required");
+    private void insertChunk(List<Customer> customers, List<Integer> indexes, CustomerBatchItemResult[] results) {
+        Set<String> existingEmails = customerRepository.findExistingEmails(
+                indexes.stream().map(i -> customers.get(i).getEmail()).toList());
+        List<Integer> inserting = new ArrayList<>();
+        for (int i : indexes) {
+            if (existingEmails.contains(customers.get(i).getEmail())) {
+                results[i] = duplicateEmail(i);
+            } else {
+                inserting.add(i);
+            }
         }
-        if (customer.getLastName() == null || customer.getLastName().trim().isEmpty()) {
-            throw new InvalidCustomerDataException("Last name is required");
+        if (inserting.isEmpty()) {
+            return;
         }
-        if (customer.getEmail() == null || customer.getEmail().trim().isEmpty()) {
-            throw new InvalidCustomerDataException("Email is required");
+        List<Customer> chunk = inserting.stream().map(customers::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                customerRepository.insertAll(chunk);
+                chunk.forEach(customer -> customerStatistics.recordAdded(customer.getDateOfBirth()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer took one of the emails after the check; insert one by one to find out which
+            for (int i : inserting) {
+                insertSingle(customers.get(i), i, results);
+            }
+            return;
         }
-        if (customer.getDateOfBirth() == null) {
-            throw new InvalidCustomerDataException("Date of birth is required");
+        for (int i : inserting) {
+            recordCreated(customers.get(i), i, results);
         }
-        if (customer.getPhoneNumber() == null || customer.getPhoneNumber().trim().isEmpty()) {
-            throw new InvalidCustomerDataException("Phone number is required");
+    }
+
+    private void insertSingle(Customer customer, int index, CustomerBatchItemResult[] results) {
+        customer.setId(null);
+        customer.setVersion(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                customerRepository.insertAll(List.of(customer));
+                customerStatistics.recordAdded(customer.getDateOfBirth());
+            });
+            recordCreated(customer, index, results);
+        } catch (DataIntegrityViolationException e) {
+            results[index] = e.getMessage() != null && e.getMessage().contains("customers_email_key")
+                    ? duplicateEmail(index)
+                    : CustomerBatchItemResult.failed(index, CustomerBatchItemResult.Status.FAILED, "Customer could not be stored");
         }
     }
-}
\ No newline at end of file
+
+    private void recordCreated(Customer customer, int index, CustomerBatchItemResult[] results) {
+        customerSearchIndex.recordSaved(customer);
+        customerCache.recordSaved(customer);
+        results[index] = CustomerBatchItemResult.created(index, customer.getId());
+    }
+
+    private static CustomerBatchItemResult duplicateEmail(int index) {
+        return CustomerBatchItemResult.failed(index, CustomerBatchItemResult.Status.DUPLICATE_EMAIL,
+                "A customer with this email already exists");
+    }
+}
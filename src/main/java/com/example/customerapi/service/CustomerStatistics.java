@@ -0,0 +1,265 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.repository.CustomerRepositoryCustom.BirthDateCounts;
+import com.example.customerapi.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory histogram of customer birth dates with one counter per day. It is loaded from the database
+ * at startup, kept current by {@link CustomerServiceImpl} on every committed write and periodically
+ * reconciled against the database. Age queries walk the histogram and never touch the database. Birth
+ * dates outside 1800-2199 are counted apart and left out of the ages.
+ */
+@Component
+public class CustomerStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerStatistics.class);
+
+    static final LocalDate FIRST_TRACKED_DAY = LocalDate.of(1800, 1, 1);
+    static final LocalDate LAST_TRACKED_DAY = LocalDate.of(2199, 12, 31);
+    private static final long FIRST_EPOCH_DAY = FIRST_TRACKED_DAY.toEpochDay();
+    private static final int BUCKETS = (int) (LAST_TRACKED_DAY.toEpochDay() - FIRST_EPOCH_DAY + 1);
+    // One counter past the tracked days for the birth dates outside them
+    private static final int UNTRACKED = BUCKETS;
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Keeps distribution versions from different application runs apart
+    private final String instanceId = Long.toHexString(new SecureRandom().nextLong());
+    private final LongAdder modifications = new LongAdder();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    // Writers hold it shared while they update the counters, so they never wait on each other; a reconcile
+    // holds it exclusively only to replay the changes it collected and swap in the new counters
+    private final StampedLock swapLock = new StampedLock();
+    // Key of the writing transaction's id among the transaction resources
+    private final Object transactionIdKey = new Object();
+    private volatile AtomicIntegerArray countsByBirthDay = new AtomicIntegerArray(BUCKETS + 1);
+    private volatile Queue<Change> changesDuringReconcile;
+    private volatile CachedDistribution cached;
+    private volatile boolean loaded;
+
+    public CustomerStatistics(CustomerRepository customerRepository, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.statistics.reconcile-interval:PT10M}",
+            initialDelayString = "${customer.statistics.reconcile-interval:PT10M}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            reconcileCounters();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void reconcileCounters() {
+        // Collected before the counts are read, so that no change committed after their snapshot is missed.
+        // Changes the snapshot already saw are left out of the replay.
+        Queue<Change> changes = new ConcurrentLinkedQueue<>();
+        changesDuringReconcile = changes;
+        AtomicIntegerArray fresh = new AtomicIntegerArray(BUCKETS + 1);
+        AtomicIntegerArray previous;
+        try {
+            BirthDateCounts counts = readOnlyTransaction.execute(status -> customerRepository.countByDateOfBirth());
+            counts.getCounts().forEach((dateOfBirth, count) -> fresh.addAndGet(bucket(dateOfBirth), count.intValue()));
+            long stamp = swapLock.writeLock();
+            try {
+                for (Change change : changes) {
+                    if (change.transactionId == null || !counts.getSnapshot().isVisible(change.transactionId)) {
+                        change.update.accept(fresh);
+                    }
+                }
+                previous = countsByBirthDay;
+                countsByBirthDay = fresh;
+                changesDuringReconcile = null;
+            } finally {
+                swapLock.unlockWrite(stamp);
+            }
+        } finally {
+            changesDuringReconcile = null;
+        }
+        modifications.increment();
+        if (fresh.get(UNTRACKED) != 0) {
+            logger.warn("{} customers have a birth date outside {} to {} and are left out of the age statistics",
+                    fresh.get(UNTRACKED), FIRST_TRACKED_DAY, LAST_TRACKED_DAY);
+        }
+        if (!loaded) {
+            loaded = true;
+            return;
+        }
+        long drift = drift(previous, fresh);
+        if (drift != 0) {
+            logger.info("Customer statistics reconciled with the database, {} birth date counters corrected", drift);
+        }
+    }
+
+    /**
+     * Counts the customer once the current transaction commits.
+     */
+    public void recordAdded(LocalDate dateOfBirth) {
+        int bucket = bucket(dateOfBirth);
+        record(counts -> counts.incrementAndGet(bucket));
+    }
+
+    /**
+     * Stops counting the customer once the current transaction commits.
+     */
+    public void recordRemoved(LocalDate dateOfBirth) {
+        int bucket = bucket(dateOfBirth);
+        record(counts -> counts.decrementAndGet(bucket));
+    }
+
+    /**
+     * Moves the customer to its new birth date once the current transaction commits.
+     */
+    public void recordChanged(LocalDate previousDateOfBirth, LocalDate dateOfBirth) {
+        if (!previousDateOfBirth.equals(dateOfBirth)) {
+            int from = bucket(previousDateOfBirth);
+            int to = bucket(dateOfBirth);
+            record(counts -> {
+                counts.decrementAndGet(from);
+                counts.incrementAndGet(to);
+            });
+        }
+    }
+
+    private void record(Consumer<AtomicIntegerArray> update) {
+        Long transactionId = currentTransactionId();
+        TransactionHooks.afterCommit(() -> apply(new Change(transactionId, update)));
+    }
+
+    private void apply(Change change) {
+        long stamp = swapLock.readLock();
+        try {
+            change.update.accept(countsByBirthDay);
+            Queue<Change> changes = changesDuringReconcile;
+            if (changes != null) {
+                changes.add(change);
+            }
+        } finally {
+            swapLock.unlockRead(stamp);
+        }
+        modifications.increment();
+    }
+
+    /**
+     * Id of the writing transaction, looked up once per transaction. {@code null} outside a transaction,
+     * where the write has committed already and is treated as one a running reconcile did not see.
+     */
+    private Long currentTransactionId() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Long transactionId = (Long) TransactionSynchronizationManager.getResource(transactionIdKey);
+        if (transactionId == null) {
+            transactionId = customerRepository.currentTransactionId();
+            TransactionSynchronizationManager.bindResource(transactionIdKey, transactionId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionIdKey);
+                }
+            });
+        }
+        return transactionId;
+    }
+
+    public AgeDistribution getAgeDistribution() {
+        return getAgeDistribution(LocalDate.now());
+    }
+
+    AgeDistribution getAgeDistribution(LocalDate today) {
+        long version = modifications.sum();
+        CachedDistribution current = cached;
+        if (current != null && current.version == version && current.today.equals(today)) {
+            return current.distribution;
+        }
+        AgeDistribution distribution = new AgeDistribution(countsByAge(today), instanceId + "-" + version + "-" + today.toEpochDay());
+        cached = new CachedDistribution(version, today, distribution);
+        return distribution;
+    }
+
+    private long[] countsByAge(LocalDate today) {
+        AtomicIntegerArray counts = countsByBirthDay;
+        int maxAge = today.getYear() - FIRST_TRACKED_DAY.getYear() + 1;
+        long[] countsByAge = new long[Math.max(maxAge, 1)];
+        int age = 0;
+        long nextBirthdayBoundary = today.minusYears(1).toEpochDay();
+        // Walks from the youngest to the oldest birth day; customers born on or before today minus N years are at least N.
+        // Birth dates after today count as age zero.
+        for (long day = LAST_TRACKED_DAY.toEpochDay(); day >= FIRST_EPOCH_DAY; day--) {
+            while (day <= nextBirthdayBoundary) {
+                age++;
+                nextBirthdayBoundary = today.minusYears(age + 1L).toEpochDay();
+            }
+            countsByAge[Math.min(age, countsByAge.length - 1)] += counts.get((int) (day - FIRST_EPOCH_DAY));
+        }
+        return countsByAge;
+    }
+
+    private static int bucket(LocalDate dateOfBirth) {
+        long index = dateOfBirth.toEpochDay() - FIRST_EPOCH_DAY;
+        return index >= 0 && index < BUCKETS ? (int) index : UNTRACKED;
+    }
+
+    private static long drift(AtomicIntegerArray previous, AtomicIntegerArray fresh) {
+        long corrected = 0;
+        for (int i = 0; i < fresh.length(); i++) {
+            if (previous.get(i) != fresh.get(i)) {
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    private static class Change {
+        private final Long transactionId;
+        private final Consumer<AtomicIntegerArray> update;
+
+        private Change(Long transactionId, Consumer<AtomicIntegerArray> update) {
+            this.transactionId = transactionId;
+            this.update = update;
+        }
+    }
+
+    private static class CachedDistribution {
+        private final long version;
+        private final LocalDate today;
+        private final AgeDistribution distribution;
+
+        private CachedDistribution(long version, LocalDate today, AgeDistribution distribution) {
+            this.version = version;
+            this.today = today;
+            this.distribution = distribution;
+        }
+    }
+}
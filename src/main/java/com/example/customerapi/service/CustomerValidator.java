@@ -0,0 +1,71 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.exception.InvalidCustomerDataException;
+import com.example.customerapi.model.Customer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The rules every stored customer has to satisfy, shared by single, batch and CSV creates.
+ */
+@Component
+public class CustomerValidator {
+
+    private final Validator validator;
+
+    public CustomerValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Checks the fields the service requires, on top of the bean validation done for request bodies.
+     *
+     * @throws InvalidCustomerDataException naming the first missing field
+     */
+    public void validate(Customer customer) {
+        if (customer.getFirstName() == null || customer.getFirstName().trim().isEmpty()) {
+            throw new InvalidCustomerDataException("First name is required");
+        }
+        if (customer.getLastName() == null || customer.getLastName().trim().isEmpty()) {
+            throw new InvalidCustomerDataException("Last name is required");
+        }
+        if (customer.getEmail() == null || customer.getEmail().trim().isEmpty()) {
+            throw new InvalidCustomerDataException("Email is required");
+        }
+        if (customer.getDateOfBirth() == null) {
+            throw new InvalidCustomerDataException("Date of birth is required");
+        }
+        if (customer.getPhoneNumber() == null || customer.getPhoneNumber().trim().isEmpty()) {
+            throw new InvalidCustomerDataException("Phone number is required");
+        }
+    }
+
+    /**
+     * Applies the checks of a single create (bean validation on the request body, then
+     * {@link #validate}) and describes what is wrong instead of throwing.
+     *
+     * @return the problem, or {@code null} if the customer is valid
+     */
+    public String findProblem(Customer customer) {
+        if (customer == null) {
+            return "Customer is required";
+        }
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            validate(customer);
+            return null;
+        } catch (InvalidCustomerDataException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.AuthResponse;
+import com.example.customerapi.exception.InvalidRefreshTokenException;
+import com.example.customerapi.model.RefreshToken;
+import com.example.customerapi.model.User;
+import com.example.customerapi.repository.RefreshTokenRepository;
+import com.example.customerapi.repository.UserRepository;
+import com.example.customerapi.security.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Renewing an access token costs one indexed lookup and a
+ * SHA-256 digest instead of the BCrypt verification of a login. Each token can be used once; a token
+ * presented a second time revokes its whole family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final JwtUtil jwtUtil;
+    private final Duration expiration;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               UserService userService,
+                               JwtUtil jwtUtil,
+                               @Value("${jwt.refresh-token.expiration:P14D}") Duration expiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.jwtUtil = jwtUtil;
+        this.expiration = expiration;
+    }
+
+    @Transactional
+    public String issue(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        return create(user, UUID.randomUUID());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        Instant now = Instant.now();
+        if (stored.getUsedAt() != null || refreshTokenRepository.markUsed(stored.getId(), now) == 0) {
+            // Presented twice: either the client or whoever copied the token is replaying it
+            refreshTokenRepository.deleteByFamilyId(stored.getFamilyId());
+            logger.warn("Refresh token reused for user {}, revoked token family {}", stored.getUser().getUsername(), stored.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token was already used");
+        }
+        User user = stored.getUser();
+        if (!stored.getExpiresAt().isAfter(now) || stored.getUserTokenVersion() != user.getTokenVersion()) {
+            throw new InvalidRefreshTokenException("Refresh token has expired or was revoked");
+        }
+        String next = create(user, stored.getFamilyId());
+        UserDetails userDetails = userService.loadUserByUsername(user.getUsername());
+        return new AuthResponse(jwtUtil.generateToken(userDetails), next);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:PT1H}",
+            initialDelayString = "${jwt.refresh-token.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String create(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(digest(token));
+        refreshToken.setUser(user);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserTokenVersion(user.getTokenVersion());
+        refreshToken.setExpiresAt(Instant.now().plus(expiration));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.util.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * User details by username, so authenticating a request does not cost a database query. Changes made
+ * through {@link UserService} invalidate the entry right away; changes made anywhere else (another
+ * instance, direct SQL) become visible after at most {@code user.details-cache.max-staleness}.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final AsyncCache<String, UserDetails> cache;
+
+    public UserDetailsCache(@Value("${user.details-cache.max-size:10000}") long maxSize,
+                            @Value("${user.details-cache.max-staleness:PT1M}") Duration maxStaleness) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        // Unknown usernames are not cached: the loader throws and a user registering next must be found
+        UserDetails cached = CacheLoads.get(cache, username, loader);
+        // Authentication erases the credentials of the returned principal, so callers get their own copy
+        return User.withUserDetails(cached).build();
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userDetails");
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customerapi.util;
+
+import java.time.LocalDate;
+
+/**
+ * Translates calendar-exact ages ({@code Period.between(dateOfBirth, today).getYears()}) into
+ * date of birth bounds, so age filters can run as plain date comparisons in the database.
+ */
+public class AgeCalculator {
+
+    // Keeps the computed dates inside the range the database can store
+    static final int MAX_AGE = 1000;
+
+    private AgeCalculator() {}
+
+    /**
+     * Customers are at least {@code age} years old exactly when they were born on or before the returned date.
+     */
+    public static LocalDate latestBirthDateForAge(LocalDate today, int age) {
+        return today.minusYears(clamp(age));
+    }
+
+    /**
+     * Customers are at most {@code age} years old exactly when they were born on or after the returned date.
+     */
+    public static LocalDate earliestBirthDateForAge(LocalDate today, int age) {
+        return today.minusYears(clamp(age) + 1L).plusDays(1);
+    }
+
+    private static int clamp(int age) {
+        return Math.max(-MAX_AGE, Math.min(age, MAX_AGE));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.customerapi.util;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Loads cache misses on the calling thread without holding a lock of the cache. {@code Cache.get} runs its
+ * loader inside a map lock, and a virtual thread blocked on the database in there pins its carrier thread.
+ * Here the lock only guards inserting an incomplete future; concurrent callers for the same key wait for it.
+ */
+public class CacheLoads {
+
+    private CacheLoads() {}
+
+    /**
+     * The cached value for {@code key}, loaded with {@code loader} on a miss. A failed load is not cached and
+     * its exception reaches every caller waiting for it.
+     */
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (missing, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The cached value for {@code key}, or {@code null} when there is none or it is still loading.
+     */
+    public static <K, V> V getIfLoaded(AsyncCache<K, V> cache, K key) {
+        CompletableFuture<V> future = cache.getIfPresent(key);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+}
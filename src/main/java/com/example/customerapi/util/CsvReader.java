@@ -0,0 +1,122 @@
+package com.example.customerapi.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double quoted fields may contain commas,
+ * line breaks and doubled quotes. Only the current record is held in memory, and at most
+ * {@code maxRecordLength} characters of it.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack;
+    private boolean hasPushedBack;
+
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Reads the next record, or returns {@code null} at the end of the input.
+     *
+     * @throws IllegalArgumentException if a quoted field is not terminated, or if the record is longer than
+     *                                  {@code maxRecordLength}; the rest of its line is then skipped unread, so
+     *                                  the next call continues on the following line
+     */
+    public List<String> readRecord() throws IOException {
+        long startLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = startLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        int length = 0;
+        while (true) {
+            if (c != -1 && (quoted || c != '\n') && ++length > maxRecordLength) {
+                skipLine(c);
+                throw new IllegalArgumentException("Record starting on line " + recordLine
+                        + " is longer than " + maxRecordLength + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line number on which the record last returned by {@link #readRecord()} started.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (c != -1 && c != '\n') {
+            c = read();
+        }
+    }
+
+    /**
+     * Reads one character, folding CRLF and lone CR line breaks into {@code '\n'}.
+     */
+    private int read() throws IOException {
+        int c;
+        if (hasPushedBack) {
+            hasPushedBack = false;
+            c = pushedBack;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\r') {
+            int next = reader.read();
+            if (next != '\n') {
+                pushedBack = next;
+                hasPushedBack = true;
+            }
+            c = '\n';
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.customerapi.util;
+
+import com.example.customerapi.model.Customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination over {@code (last_name, id)}.
+ * Clients only ever see the Base64 encoded form and hand it back unchanged.
+ */
+public class CustomerCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String lastName;
+    private final UUID id;
+
+    public CustomerCursor(String lastName, UUID id) {
+        this.lastName = lastName;
+        this.id = id;
+    }
+
+    public static CustomerCursor after(Customer customer) {
+        return new CustomerCursor(customer.getLastName(), customer.getId());
+    }
+
+    public static CustomerCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new CustomerCursor(decoded.substring(0, separator), UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = lastName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
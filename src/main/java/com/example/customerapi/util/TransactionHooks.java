@@ -0,0 +1,29 @@
+package com.example.customerapi.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory bookkeeping until the data it describes is visible to other transactions.
+ */
+public class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Runs {@code action} once the current transaction commits, not at all if it rolls back, and right
+     * away when no transaction is active.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
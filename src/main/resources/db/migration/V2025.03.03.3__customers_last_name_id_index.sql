@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_customers_last_name_id ON customers (last_name, id);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_customers_date_of_birth ON customers USING btree (date_of_birth);
@@ -0,0 +1,44 @@
+CREATE TABLE IF NOT EXISTS table_changes (
+    table_name VARCHAR(63) PRIMARY KEY,
+    generation UUID NOT NULL DEFAULT gen_random_uuid(),
+    change_count BIGINT NOT NULL DEFAULT 0
+    );
+
+INSERT INTO table_changes (table_name) VALUES ('customers') ON CONFLICT (table_name) DO NOTHING;
+
+-- Bumped in the writing transaction, so the count changes exactly when the change commits
+CREATE OR REPLACE FUNCTION count_table_change() RETURNS trigger AS $$
+BEGIN
+    UPDATE table_changes SET change_count = change_count + 1 WHERE table_name = TG_TABLE_NAME;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statements that touch no row, such as an upsert finding nothing to change, leave the count alone
+CREATE OR REPLACE FUNCTION count_table_change_if_rows_changed() RETURNS trigger AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM changed_rows) THEN
+        UPDATE table_changes SET change_count = change_count + 1 WHERE table_name = TG_TABLE_NAME;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS customers_count_inserts ON customers;
+CREATE TRIGGER customers_count_inserts AFTER INSERT ON customers
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_table_change_if_rows_changed();
+
+DROP TRIGGER IF EXISTS customers_count_updates ON customers;
+CREATE TRIGGER customers_count_updates AFTER UPDATE ON customers
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_table_change_if_rows_changed();
+
+DROP TRIGGER IF EXISTS customers_count_deletes ON customers;
+CREATE TRIGGER customers_count_deletes AFTER DELETE ON customers
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_table_change_if_rows_changed();
+
+DROP TRIGGER IF EXISTS customers_count_truncates ON customers;
+CREATE TRIGGER customers_count_truncates AFTER TRUNCATE ON customers
+    FOR EACH STATEMENT EXECUTE FUNCTION count_table_change();
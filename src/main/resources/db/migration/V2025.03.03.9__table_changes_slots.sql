@@ -0,0 +1,29 @@
+-- One counter row per table made every writer wait for the previous writer's commit. Each table now
+-- gets 64 rows; a statement bumps the row picked by its backend, and readers add the rows up.
+ALTER TABLE table_changes ADD COLUMN IF NOT EXISTS slot SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE table_changes DROP CONSTRAINT IF EXISTS table_changes_pkey;
+ALTER TABLE table_changes ADD PRIMARY KEY (table_name, slot);
+
+INSERT INTO table_changes (table_name, slot, generation)
+SELECT t.table_name, s.slot, t.generation
+FROM table_changes t CROSS JOIN generate_series(1, 63) AS s(slot)
+WHERE t.slot = 0
+ON CONFLICT (table_name, slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION count_table_change() RETURNS trigger AS $$
+BEGIN
+    UPDATE table_changes SET change_count = change_count + 1
+    WHERE table_name = TG_TABLE_NAME AND slot = pg_backend_pid() % 64;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION count_table_change_if_rows_changed() RETURNS trigger AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM changed_rows) THEN
+        UPDATE table_changes SET change_count = change_count + 1
+        WHERE table_name = TG_TABLE_NAME AND slot = pg_backend_pid() % 64;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,94 @@
+package com.example.customerapi.benchmark;
+
+import com.example.customerapi.dataTransferObject.CustomerTable;
+import com.example.customerapi.model.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the representations a client can ask for when reading a page of 10,000 customers: the CPU
+ * time to serialize the page, with and without the gzip compression the server applies, and the size
+ * of the result, which is printed once per format before the measurement starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerPayloadBenchmark {
+
+    public enum Format {
+        JSON, COLUMNAR_JSON, CBOR, SMILE
+    }
+
+    private static final int CUSTOMERS = 10_000;
+
+    @Param({"JSON", "COLUMNAR_JSON", "CBOR", "SMILE"})
+    private Format format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private Object payload;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("First" + i, "Last" + (i % 997), "customer" + i + "@example.com",
+                    LocalDate.of(1950, 1, 1).plusDays(i * 7L % 20_000), "+3620" + (1_000_000 + i));
+            customer.setId(UUID.randomUUID());
+            customer.setVersion((long) (i % 5));
+            customers.add(customer);
+        }
+        // The same builders Spring MVC uses for its message converters
+        objectMapper = switch (format) {
+            case JSON, COLUMNAR_JSON -> Jackson2ObjectMapperBuilder.json().build();
+            case CBOR -> Jackson2ObjectMapperBuilder.cbor().build();
+            case SMILE -> Jackson2ObjectMapperBuilder.smile().build();
+        };
+        payload = format == Format.COLUMNAR_JSON ? new CustomerTable(customers) : customers;
+        buffer = new ByteArrayOutputStream(4 * 1024 * 1024);
+        System.out.printf("%n%s%s: %,d bytes for %,d customers%n",
+                format, gzip ? " + gzip" : "", serialize(), CUSTOMERS);
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                objectMapper.writeValue(out, payload);
+            }
+        } else {
+            objectMapper.writeValue(buffer, payload);
+        }
+        return buffer.size();
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(CustomerPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
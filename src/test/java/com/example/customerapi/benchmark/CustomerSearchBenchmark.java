@@ -0,0 +1,71 @@
+package com.example.customerapi.benchmark;
+
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.service.CustomerSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead latency of the in-memory customer search index over a million customers with realistic
+ * name frequencies: a common prefix, a full name, a rare whole word and a substring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CustomerSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Anna", "Peter", "Eva", "Laszlo", "Katalin", "Zoltan", "Erzsebet"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Nagy", "Kovacs", "Toth", "Szabo", "Horvath", "Varga", "Kiss"};
+
+    @Param({"1000000"})
+    private int customers;
+
+    @Param({"jo", "john smith", "customer424242", "ovac"})
+    private String query;
+
+    private CustomerSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        searchIndex = new CustomerSearchIndex(null);
+        Random random = new Random(42);
+        for (int i = 0; i < customers; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Customer customer = new Customer(firstName, lastName, "customer" + i + "@example.com",
+                    LocalDate.of(1990, 1, 1), "+3620" + i);
+            customer.setId(UUID.randomUUID());
+            searchIndex.recordSaved(customer);
+        }
+    }
+
+    @Benchmark
+    public List<CustomerSearchHit> search() {
+        return searchIndex.search(query, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(CustomerSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
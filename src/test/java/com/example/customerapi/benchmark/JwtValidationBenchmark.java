@@ -0,0 +1,90 @@
+package com.example.customerapi.benchmark;
+
+import com.example.customerapi.security.JwtClaims;
+import com.example.customerapi.security.JwtClaimsCache;
+import com.example.customerapi.security.JwtKeyRing;
+import com.example.customerapi.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the per-request cost of authenticating a bearer token: the previous path that verified and
+ * parsed the token three times, a single verified parse, and a claims cache hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyWithAtLeast32CharactersForHmacSha256";
+
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtClaimsCache claimsCache = new JwtClaimsCache(10_000);
+        cachingJwtUtil = new JwtUtil(new JwtKeyRing(SECRET, "benchmark", "", claimsCache), 3600L, claimsCache, null, false);
+        uncachedJwtUtil = new JwtUtil(new JwtKeyRing(SECRET, "benchmark", "", claimsCache), 3600L, new JwtClaimsCache(0) {
+            @Override
+            public JwtClaims get(String token, Function<String, JwtClaims> parser) {
+                return parser.apply(token);
+            }
+        }, null, false);
+        userDetails = new User("benchmark", "password", new ArrayList<>());
+        token = cachingJwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean previousTripleParse() {
+        String username = previousExtractAllClaims(token).getSubject();
+        boolean sameUser = previousExtractAllClaims(token).getSubject().equals(userDetails.getUsername());
+        return username != null && sameUser && !previousExtractAllClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        JwtClaims claims = uncachedJwtUtil.parseToken(token);
+        return uncachedJwtUtil.validateToken(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean cachedClaims() {
+        JwtClaims claims = cachingJwtUtil.parseToken(token);
+        return cachingJwtUtil.validateToken(claims, userDetails);
+    }
+
+    private static Claims previousExtractAllClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.customerapi.benchmark;
+
+import com.example.customerapi.CustomerApiApplication;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency of the API with many concurrent clients, once on Tomcat's platform thread pool and
+ * once on virtual threads. Every client keeps reading a page of customers, and every read holds a database
+ * connection while it runs. This is not a JMH benchmark: it starts the application in each mode and drives
+ * it over HTTP. The database is {@code spring.datasource.url}, by default a Testcontainers PostgreSQL.
+ *
+ * <p>Arguments: number of clients (1000 by default) and seconds measured per mode (20 by default).
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "Load-Test-Passw0rd!";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Duration measured = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        VirtualThreadLoadBenchmark benchmark = new VirtualThreadLoadBenchmark();
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-9s %8s %12s %9s %9s %9s %7s", "mode", "clients", "requests/s", "p50 ms", "p99 ms",
+                "max ms", "errors"));
+        for (boolean virtual : new boolean[]{false, true}) {
+            lines.add(benchmark.run(virtual, clients, measured));
+        }
+        lines.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private String run(boolean virtual, int clients, Duration measured) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerApiApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                // Platform threads: connections beyond the thread pool wait in Tomcat's queues, not refused
+                "--server.tomcat.accept-count=" + clients,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN")) {
+            seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = login(baseUrl);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/customers?limit=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+            load(request, clients, WARMUP);
+            Result result = load(request, clients, measured);
+            return String.format("%-9s %8d %12.0f %9.1f %9.1f %9.1f %7d", virtual ? "virtual" : "platform", clients,
+                    result.count / (double) measured.toSeconds(), result.percentile(0.5), result.percentile(0.99),
+                    result.percentile(1), result.errors);
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        if (customerRepository.count() >= CUSTOMERS) {
+            return;
+        }
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer("First" + i, "Last" + (i % 997), "load" + i + "@example.com",
+                    LocalDate.of(1950, 1, 1).plusDays(i * 7L % 20_000), "+3620" + (1_000_000 + i)));
+        }
+        // Customers left from an earlier run are reported as duplicates and skipped
+        context.getBean(CustomerService.class).createCustomers(customers);
+    }
+
+    private String login(String baseUrl) throws IOException, InterruptedException {
+        String credentials = objectMapper.writeValueAsString(Map.of("username", USERNAME, "password", PASSWORD));
+        // Fails with 400 when the user exists already, which is fine
+        post(baseUrl + "/api/auth/register", credentials);
+        HttpResponse<String> response = post(baseUrl + "/api/auth/login", credentials);
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String url, String body) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Runs {@code clients} closed-loop clients, each sending its next request once the last one is answered.
+     */
+    private Result load(HttpRequest request, int clients, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int index = client;
+                executor.submit(() -> {
+                    long[] own = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        if (count == own.length) {
+                            own = Arrays.copyOf(own, count * 2);
+                        }
+                        own[count++] = System.nanoTime() - start;
+                    }
+                    latencies[index] = own;
+                    counts[index] = count;
+                });
+            }
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int client = 0; client < clients; client++) {
+            System.arraycopy(latencies[client], 0, all, offset, counts[client]);
+            offset += counts[client];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    private static final class Result {
+        private final long[] sortedNanos;
+        private final int count;
+        private final long errors;
+
+        private Result(long[] sortedNanos, long errors) {
+            this.sortedNanos = sortedNanos;
+            this.count = sortedNanos.length;
+            this.errors = errors;
+        }
+
+        private double percentile(double percentile) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.customerapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedDataSourceTest {
+
+    private DataSource target;
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void testWaitsForAConnectionToBeClosed() throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        connection.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testClosingTwiceReturnsOnePermit() throws SQLException {
+        BoundedDataSource twoConnections = new BoundedDataSource(target, 2, Duration.ofMillis(50));
+        Connection connection = twoConnections.getConnection();
+        connection.close();
+        connection.close();
+
+        twoConnections.getConnection();
+        twoConnections.getConnection();
+        assertThrows(SQLTransientConnectionException.class, twoConnections::getConnection);
+    }
+
+    @Test
+    void testFailedConnectionReturnsPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenAnswer(invocation -> mock(Connection.class));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testDelegatesToTheConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        verify(target).getConnection();
+        assertEquals(connection, connection);
+        assertNotEquals(connection, dataSource.getConnection());
+    }
+}
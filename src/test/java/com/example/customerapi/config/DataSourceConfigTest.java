@@ -0,0 +1,38 @@
+package com.example.customerapi.config;
+
+import com.example.customerapi.BaseTest;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class DataSourceConfigTest extends BaseTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testVirtualThreadsBoundTheConnectionPool() throws SQLException {
+        assertInstanceOf(BoundedDataSource.class, dataSource);
+        assertTrue(dataSource.isWrapperFor(HikariDataSource.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertNotNull(meterRegistry.find("jdbc.connections.waiting").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").gauge());
+    }
+}
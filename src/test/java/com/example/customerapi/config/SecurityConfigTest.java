@@ -11,6 +11,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
@@ -28,6 +29,9 @@ public class SecurityConfigTest extends BaseTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private UserDetailsPasswordService userDetailsPasswordService;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -1,9 +1,14 @@
 package com.example.customerapi.controller;
 
 import com.example.customerapi.BaseTest;
+import com.example.customerapi.dataTransferObject.AuthResponse;
 import com.example.customerapi.dataTransferObject.LoginRequest;
+import com.example.customerapi.dataTransferObject.RefreshRequest;
+import com.example.customerapi.exception.InvalidRefreshTokenException;
+import com.example.customerapi.exception.PasswordHashingRejectedException;
 import com.example.customerapi.model.User;
 import com.example.customerapi.security.JwtUtil;
+import com.example.customerapi.service.RefreshTokenService;
 import com.example.customerapi.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +32,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -50,6 +56,9 @@ class AuthenticationControllerTest extends BaseTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private RefreshTokenService refreshTokenService;
+
     @MockitoBean
     private Authentication authentication;
 
@@ -108,12 +117,14 @@ class AuthenticationControllerTest extends BaseTest {
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtil.generateToken(userDetails)).thenReturn("test.jwt.token");
+        when(refreshTokenService.issue("testuser")).thenReturn("test-refresh-token");
 
         mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token", is("test.jwt.token")));
+                .andExpect(jsonPath("$.token", is("test.jwt.token")))
+                .andExpect(jsonPath("$.refreshToken", is("test-refresh-token")));
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtUtil).generateToken(userDetails);
@@ -133,4 +144,62 @@ class AuthenticationControllerTest extends BaseTest {
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verifyNoInteractions(jwtUtil);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRegisterUser_HashingSaturated() throws Exception {
+        when(userService.saveUser(any(User.class)))
+                .thenThrow(new PasswordHashingRejectedException("Too many concurrent password operations, try again later"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title", is("Service Unavailable")));
+    }
+
+    @Test
+    void testLogin_HashingSaturated() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new PasswordHashingRejectedException("Too many concurrent password operations, try again later"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void testRefresh() throws Exception {
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("old-refresh-token");
+        when(refreshTokenService.refresh("old-refresh-token"))
+                .thenReturn(new AuthResponse("new.jwt.token", "new-refresh-token"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token", is("new.jwt.token")))
+                .andExpect(jsonPath("$.refreshToken", is("new-refresh-token")));
+
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void testRefresh_InvalidToken() throws Exception {
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("used-refresh-token");
+        when(refreshTokenService.refresh("used-refresh-token"))
+                .thenThrow(new InvalidRefreshTokenException("Refresh token was already used"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$", is("Invalid refresh token")));
+    }
+}
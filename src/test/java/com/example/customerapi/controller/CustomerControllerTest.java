@@ -1,30 +1,61 @@
 package com.example.customerapi.controller;
 
 import com.example.customerapi.BaseTest;
+import com.example.customerapi.dataTransferObject.AgeHistogramBucket;
+import com.example.customerapi.dataTransferObject.AgeSummary;
+import com.example.customerapi.dataTransferObject.CustomerBatchItemResult;
+import com.example.customerapi.dataTransferObject.CustomerBatchResult;
+import com.example.customerapi.dataTransferObject.CustomerImportError;
+import com.example.customerapi.dataTransferObject.CustomerImportResult;
+import com.example.customerapi.dataTransferObject.CustomerPage;
+import com.example.customerapi.dataTransferObject.CustomerPatchRequest;
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.dataTransferObject.CustomerUpsertResult;
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
 import com.example.customerapi.exception.CustomerNotFoundException;
+import com.example.customerapi.exception.DuplicateCustomerEmailException;
+import com.example.customerapi.exception.InvalidCsvException;
 import com.example.customerapi.exception.InvalidCustomerDataException;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
+import com.example.customerapi.service.AgeDistribution;
+import com.example.customerapi.service.CustomerImportService;
 import com.example.customerapi.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -44,6 +75,9 @@ class CustomerControllerTest extends BaseTest {
     @MockitoBean
     private CustomerService customerService;
 
+    @MockitoBean
+    private CustomerImportService customerImportService;
+
     private Customer testCustomer;
     private UUID testId;
 
@@ -90,44 +124,421 @@ class CustomerControllerTest extends BaseTest {
         verify(customerService).createCustomer(any(Customer.class));
     }
 
+    @Test
+    @WithMockUser
+    void testCreateCustomer_DuplicateEmail() throws Exception {
+        when(customerService.createCustomer(any(Customer.class)))
+                .thenThrow(new DuplicateCustomerEmailException("A customer with this email already exists"));
+
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Duplicate email")));
+    }
+
+    @Test
+    @WithMockUser
+    void testUpsertCustomerByEmail() throws Exception {
+        testCustomer.setVersion(0L);
+        when(customerService.upsertCustomerByEmail(eq("john.doe@example.com"), any(Customer.class)))
+                .thenReturn(new CustomerUpsertResult(testCustomer, true))
+                .thenReturn(new CustomerUpsertResult(testCustomer, false));
+
+        mockMvc.perform(put("/api/customers/by-email/john.doe@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.id", is(testId.toString())));
+
+        mockMvc.perform(put("/api/customers/by-email/john.doe@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateCustomers() throws Exception {
+        UUID createdId = UUID.randomUUID();
+        when(customerService.createCustomers(anyList())).thenReturn(new CustomerBatchResult(List.of(
+                CustomerBatchItemResult.created(0, createdId),
+                CustomerBatchItemResult.failed(1, CustomerBatchItemResult.Status.DUPLICATE_EMAIL, "A customer with this email already exists"))));
+
+        mockMvc.perform(post("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testCustomer, testCustomer))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.items[0].id", is(createdId.toString())))
+                .andExpect(jsonPath("$.items[1].status", is("DUPLICATE_EMAIL")))
+                .andExpect(jsonPath("$.items[1].id").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateCustomers_EmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid batch")));
+
+        verify(customerService, never()).createCustomers(anyList());
+    }
+
     @Test
     @WithMockUser
     void testGetCustomerById() throws Exception {
-        when(customerService.getCustomerById(testId)).thenReturn(testCustomer);
+        testCustomer.setVersion(2L);
+        renderWhenFound(testCustomer);
 
         mockMvc.perform(get("/api/customers/" + testId))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                 .andExpect(jsonPath("$.id", is(testId.toString())))
-                .andExpect(jsonPath("$.firstName", is("John")));
+                .andExpect(jsonPath("$.firstName", is("John")))
+                .andExpect(jsonPath("$.dateOfBirth", is("1990-01-01")));
+
+        verify(customerService, never()).findCustomerById(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomerById_RenderedOnce() throws Exception {
+        // Stands in for the cache: the rendering of the first request is reused
+        RenderedCustomer[] cached = new RenderedCustomer[1];
+        when(customerService.findRenderedCustomerById(eq(testId), any())).thenAnswer(invocation -> {
+            if (cached[0] == null) {
+                Function<Customer, RenderedCustomer> renderer = invocation.getArgument(1);
+                cached[0] = renderer.apply(testCustomer);
+            }
+            return Optional.of(cached[0]);
+        });
+
+        byte[] first = mockMvc.perform(get("/api/customers/{id}", testId))
+                .andReturn().getResponse().getContentAsByteArray();
+        testCustomer.setFirstName("Changed");
+        byte[] second = mockMvc.perform(get("/api/customers/{id}", testId).accept(MediaType.ALL))
+                .andExpect(jsonPath("$.firstName", is("John")))
+                .andReturn().getResponse().getContentAsByteArray();
 
-        verify(customerService).getCustomerById(testId);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomerById_NotModified() throws Exception {
+        when(customerService.findCustomerVersion(testId)).thenReturn(Optional.of(2L));
+
+        mockMvc.perform(get("/api/customers/" + testId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        verify(customerService, never()).findCustomerById(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomerById_StaleETag() throws Exception {
+        testCustomer.setVersion(3L);
+        when(customerService.findCustomerVersion(testId)).thenReturn(Optional.of(3L));
+        renderWhenFound(testCustomer);
+
+        mockMvc.perform(get("/api/customers/" + testId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
     }
 
     @Test
     @WithMockUser
     void testGetCustomerById_NotFound() throws Exception {
-        when(customerService.getCustomerById(testId))
-                .thenThrow(new CustomerNotFoundException("Customer not found"));
+        when(customerService.findRenderedCustomerById(eq(testId), any())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/customers/" + testId))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.error", is("Customer not found")));
+                .andExpect(jsonPath("$.error", is("Customer not found")))
+                .andExpect(jsonPath("$.message", is("Customer not found with id: " + testId)));
 
-        verify(customerService).getCustomerById(testId);
+        verify(customerService).findRenderedCustomerById(eq(testId), any());
     }
 
     @Test
     @WithMockUser
     void testGetAllCustomers() throws Exception {
         List<Customer> customers = Collections.singletonList(testCustomer);
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomersPage(null, null)).thenReturn(new CustomerPage(customers, null));
 
         mockMvc.perform(get("/api/customers"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(testId.toString())));
 
-        verify(customerService).getAllCustomers();
+        verify(customerService).getCustomersPage(null, null);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_WeakETagVaryingByAccept() throws Exception {
+        when(customerService.getCustomersChangeTag()).thenReturn("abc-7");
+        when(customerService.getCustomersPage(null, null))
+                .thenReturn(new CustomerPage(Collections.singletonList(testCustomer), null));
+
+        mockMvc.perform(get("/api/customers"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"abc-7\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_Columnar() throws Exception {
+        testCustomer.setVersion(3L);
+        when(customerService.getCustomersPage(null, null))
+                .thenReturn(new CustomerPage(Collections.singletonList(testCustomer), null));
+
+        mockMvc.perform(get("/api/customers")
+                        .accept(CustomerController.COLUMNAR_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CustomerController.COLUMNAR_JSON_VALUE))
+                .andExpect(jsonPath("$.columns", contains("id", "firstName", "lastName", "email",
+                        "dateOfBirth", "phoneNumber", "version")))
+                .andExpect(jsonPath("$.rows", hasSize(1)))
+                .andExpect(jsonPath("$.rows[0][0]", is(testId.toString())))
+                .andExpect(jsonPath("$.rows[0][4]", is("1990-01-01")))
+                .andExpect(jsonPath("$.rows[0][6]", is(3)));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_ColumnarOnlyWhenNegotiated() throws Exception {
+        when(customerService.getCustomersPage(null, null))
+                .thenReturn(new CustomerPage(Collections.singletonList(testCustomer), null));
+
+        mockMvc.perform(get("/api/customers")
+                        .header(HttpHeaders.ACCEPT, "application/json, " + CustomerController.COLUMNAR_JSON_VALUE + ";q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id", is(testId.toString())));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_Cbor() throws Exception {
+        when(customerService.getCustomersPage(null, null))
+                .thenReturn(new CustomerPage(Collections.singletonList(testCustomer), null));
+
+        MvcResult result = mockMvc.perform(get("/api/customers")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        Customer[] customers = new CBORMapper().findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), Customer[].class);
+        assertEquals(1, customers.length);
+        assertEquals(testId, customers[0].getId());
+        assertEquals(LocalDate.of(1990, 1, 1), customers[0].getDateOfBirth());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomerById_Smile() throws Exception {
+        when(customerService.findCustomerById(testId)).thenReturn(Optional.of(testCustomer));
+
+        MvcResult result = mockMvc.perform(get("/api/customers/{id}", testId)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        Customer customer = new SmileMapper().findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), Customer.class);
+        assertEquals("john.doe@example.com", customer.getEmail());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_SelectedFields() throws Exception {
+        when(customerService.getCustomersPage(null, null, EnumSet.of(CustomerField.ID, CustomerField.EMAIL)))
+                .thenReturn(new CustomerPage(Collections.singletonList(testCustomer), "def"));
+
+        mockMvc.perform(get("/api/customers")
+                        .param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[0].id", is(testId.toString())))
+                .andExpect(jsonPath("$[0].email", is("john.doe@example.com")))
+                .andExpect(jsonPath("$[0].lastName").doesNotExist());
+
+        mockMvc.perform(get("/api/customers")
+                        .param("fields", "id,email")
+                        .accept(CustomerController.COLUMNAR_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.columns", contains("id", "email")))
+                .andExpect(jsonPath("$.rows[0][1]", is("john.doe@example.com")));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_UnknownField() throws Exception {
+        mockMvc.perform(get("/api/customers")
+                        .param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid fields")));
+
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomerById_SelectedFields() throws Exception {
+        testCustomer.setVersion(2L);
+        when(customerService.findCustomerById(testId, EnumSet.of(CustomerField.EMAIL, CustomerField.VERSION)))
+                .thenReturn(Optional.of(testCustomer));
+
+        mockMvc.perform(get("/api/customers/{id}", testId)
+                        .param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.email", is("john.doe@example.com")))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(jsonPath("$.firstName").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchCustomers() throws Exception {
+        when(customerService.searchCustomers("jo", 5))
+                .thenReturn(List.of(new CustomerSearchHit(testId, "John", "Doe", "john.doe@example.com", 2)));
+
+        mockMvc.perform(get("/api/customers/search")
+                        .param("q", "jo")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(testId.toString())))
+                .andExpect(jsonPath("$[0].score", is(2)));
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchCustomers_BlankQuery() throws Exception {
+        when(customerService.searchCustomers(null, null)).thenThrow(new IllegalArgumentException("q must not be blank"));
+
+        mockMvc.perform(get("/api/customers/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid search")));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_WithCursor() throws Exception {
+        List<Customer> customers = Collections.singletonList(testCustomer);
+        when(customerService.getCustomersPage("abc", 1)).thenReturn(new CustomerPage(customers, "def"));
+
+        mockMvc.perform(get("/api/customers")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(customerService).getCustomersPage("abc", 1);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_InvalidCursor() throws Exception {
+        when(customerService.getCustomersPage("bogus", null))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        mockMvc.perform(get("/api/customers")
+                        .param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid page request")));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportCustomers() throws Exception {
+        when(customerImportService.importCustomers(any(), any())).thenAnswer(invocation -> {
+            Consumer<CustomerImportError> rejected = invocation.getArgument(1);
+            rejected.accept(new CustomerImportError(3, CustomerBatchItemResult.Status.INVALID, "Email should be valid"));
+            rejected.accept(new CustomerImportError(5, CustomerBatchItemResult.Status.DUPLICATE_EMAIL, "A customer with this email already exists"));
+            return new CustomerImportResult(10, 2);
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/customers/import")
+                        .contentType("text/csv")
+                        .content("firstName,lastName,email,dateOfBirth,phoneNumber\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(10)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)))
+                .andExpect(jsonPath("$.errors[1].status", is("DUPLICATE_EMAIL")));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportCustomers_InvalidHeader() throws Exception {
+        when(customerImportService.importCustomers(any(), any()))
+                .thenThrow(new InvalidCsvException("The CSV header is missing"));
+
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType("text/csv")
+                        .content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid CSV")));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllCustomers_NotModified() throws Exception {
+        when(customerService.getCustomersChangeTag()).thenReturn("abc-7");
+
+        mockMvc.perform(get("/api/customers")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(customerService, never()).getCustomersPage(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportCustomers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(testCustomer);
+            consumer.accept(testCustomer);
+            return null;
+        }).when(customerService).exportCustomers(any());
+
+        MvcResult result = mockMvc.perform(get("/api/customers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(testId, objectMapper.readValue(lines[0], Customer.class).getId());
     }
 
     @Test
@@ -159,10 +570,56 @@ class CustomerControllerTest extends BaseTest {
         verify(customerService).updateCustomer(eq(testId), any(Customer.class));
     }
 
+    @Test
+    @WithMockUser
+    void testUpdateCustomer_StaleIfMatch() throws Exception {
+        when(customerService.updateCustomer(eq(testId), any(Customer.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(put("/api/customers/" + testId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("Precondition failed")));
+
+        verify(customerService).updateCustomer(eq(testId), argThat(customer -> customer.getVersion() == 3L));
+    }
+
+    @Test
+    @WithMockUser
+    void testPatchCustomer() throws Exception {
+        testCustomer.setVersion(4L);
+        when(customerService.patchCustomer(eq(testId), any(CustomerPatchRequest.class))).thenReturn(testCustomer);
+
+        mockMvc.perform(patch("/api/customers/" + testId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\":\"Doe\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+
+        verify(customerService).patchCustomer(eq(testId), argThat(patch ->
+                "Doe".equals(patch.getLastName()) && patch.getFirstName() == null && patch.getVersion() == null));
+    }
+
+    @Test
+    @WithMockUser
+    void testPatchCustomer_VersionConflict() throws Exception {
+        when(customerService.patchCustomer(eq(testId), any(CustomerPatchRequest.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(patch("/api/customers/" + testId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\":\"Doe\",\"version\":1}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Version conflict")));
+    }
+
     @Test
     @WithMockUser
     void testDeleteCustomer() throws Exception {
-        doNothing().when(customerService).deleteCustomer(testId);
+        when(customerService.deleteCustomer(testId)).thenReturn(true);
 
         mockMvc.perform(delete("/api/customers/" + testId))
                 .andExpect(status().isNoContent());
@@ -173,8 +630,7 @@ class CustomerControllerTest extends BaseTest {
     @Test
     @WithMockUser
     void testDeleteCustomer_NotFound() throws Exception {
-        doThrow(new CustomerNotFoundException("Customer not found"))
-                .when(customerService).deleteCustomer(testId);
+        when(customerService.deleteCustomer(testId)).thenReturn(false);
 
         mockMvc.perform(delete("/api/customers/" + testId))
                 .andExpect(status().isNotFound())
@@ -195,6 +651,66 @@ class CustomerControllerTest extends BaseTest {
         verify(customerService).getAverageAge();
     }
 
+    @Test
+    @WithMockUser
+    void testGetAgeSummary() throws Exception {
+        AgeDistribution distribution = mock(AgeDistribution.class);
+        when(distribution.getVersion()).thenReturn("abc-1");
+        when(distribution.getSummary()).thenReturn(new AgeSummary(4, 20, 50, 35.0, 35.0, 50, 50));
+        when(customerService.getAgeDistribution()).thenReturn(distribution);
+
+        mockMvc.perform(get("/api/customers/stats/summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-1\""))
+                .andExpect(header().string("Cache-Control", containsString("max-age=30")))
+                .andExpect(jsonPath("$.count", is(4)))
+                .andExpect(jsonPath("$.median", is(35.0)))
+                .andExpect(jsonPath("$.p99", is(50)));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAgeSummary_NotModified() throws Exception {
+        AgeDistribution distribution = mock(AgeDistribution.class);
+        when(distribution.getVersion()).thenReturn("abc-1");
+        when(customerService.getAgeDistribution()).thenReturn(distribution);
+
+        mockMvc.perform(get("/api/customers/stats/summary")
+                        .header("If-None-Match", "\"abc-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(distribution, never()).getSummary();
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAgeHistogram() throws Exception {
+        AgeDistribution distribution = mock(AgeDistribution.class);
+        when(distribution.getVersion()).thenReturn("abc-2");
+        when(distribution.getHistogram(10)).thenReturn(List.of(new AgeHistogramBucket(30, 39, 12)));
+        when(customerService.getAgeDistribution()).thenReturn(distribution);
+
+        mockMvc.perform(get("/api/customers/stats/age-histogram")
+                        .param("bucket", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-2\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].fromAge", is(30)))
+                .andExpect(jsonPath("$[0].count", is(12)));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAgeHistogram_InvalidBucket() throws Exception {
+        mockMvc.perform(get("/api/customers/stats/age-histogram")
+                        .param("bucket", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid bucket width")));
+
+        verifyNoInteractions(customerService);
+    }
+
     @Test
     @WithMockUser
     void testGetCustomersBetweenAges() throws Exception {
@@ -211,6 +727,70 @@ class CustomerControllerTest extends BaseTest {
         verify(customerService).getCustomersBetweenAges(20, 40);
     }
 
+    @Test
+    @WithMockUser
+    void testGetCustomersBetweenAges_SelectedFields() throws Exception {
+        Customer projected = new Customer();
+        projected.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        when(customerService.getCustomersBetweenAges(eq(20), eq(40), any(), eq(EnumSet.of(CustomerField.DATE_OF_BIRTH))))
+                .thenReturn(List.of(projected));
+
+        mockMvc.perform(get("/api/customers/age-range")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("fields", "dateOfBirth"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].dateOfBirth", is("1990-01-01")))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+
+        verify(customerService, never()).getCustomersBetweenAges(20, 40);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomersBetweenAges_Paged() throws Exception {
+        when(customerService.getCustomersBetweenAges(20, 40, PageRequest.of(1, 10))).thenReturn(List.of(testCustomer));
+
+        mockMvc.perform(get("/api/customers/age-range")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(customerService).getCustomersBetweenAges(20, 40, PageRequest.of(1, 10));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomersBetweenAges_CountOnly() throws Exception {
+        when(customerService.countCustomersBetweenAges(20, 40)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/customers/age-range")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("countOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+
+        verify(customerService).countCustomersBetweenAges(20, 40);
+        verify(customerService, never()).getCustomersBetweenAges(anyInt(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetCustomersBetweenAges_InvalidPage() throws Exception {
+        mockMvc.perform(get("/api/customers/age-range")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid page request")));
+
+        verifyNoInteractions(customerService);
+    }
+
     @Test
     @WithMockUser
     void testGetCustomersBetweenAges_MissingParams() throws Exception {
@@ -232,4 +812,11 @@ class CustomerControllerTest extends BaseTest {
 
         verifyNoInteractions(customerService);
     }
-}
\ No newline at end of file
+
+    private void renderWhenFound(Customer customer) {
+        when(customerService.findRenderedCustomerById(eq(customer.getId()), any())).thenAnswer(invocation -> {
+            Function<Customer, RenderedCustomer> renderer = invocation.getArgument(1);
+            return Optional.of(renderer.apply(customer));
+        });
+    }
+}
@@ -11,9 +11,11 @@ class AuthResponseTest {
     @Test
     void testAuthResponse() {
         String token = "test.jwt.token";
+        String refreshToken = "test-refresh-token";
 
-        AuthResponse authResponse = new AuthResponse(token);
+        AuthResponse authResponse = new AuthResponse(token, refreshToken);
 
         assertEquals(token, authResponse.getToken());
+        assertEquals(refreshToken, authResponse.getRefreshToken());
     }
 }
\ No newline at end of file
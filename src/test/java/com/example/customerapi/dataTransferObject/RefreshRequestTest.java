@@ -0,0 +1,19 @@
+package com.example.customerapi.dataTransferObject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RefreshRequestTest {
+
+    @Test
+    void testRefreshRequest() {
+        RefreshRequest refreshRequest = new RefreshRequest();
+
+        refreshRequest.setRefreshToken("test-refresh-token");
+
+        assertEquals("test-refresh-token", refreshRequest.getRefreshToken());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.customerapi.integration;
 import com.example.customerapi.BaseTest;
 import com.example.customerapi.dataTransferObject.AuthResponse;
 import com.example.customerapi.dataTransferObject.LoginRequest;
+import com.example.customerapi.dataTransferObject.RefreshRequest;
 import com.example.customerapi.model.Customer;
 import com.example.customerapi.model.User;
 import com.example.customerapi.repository.CustomerRepository;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
@@ -22,6 +24,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +49,7 @@ class CustomerApiIntegrationTest extends BaseTest {
     private PasswordEncoder passwordEncoder;
 
     private String authToken;
+    private String refreshToken;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -71,8 +75,10 @@ class CustomerApiIntegrationTest extends BaseTest {
         AuthResponse authResponse = objectMapper.readValue(
                 result.getResponse().getContentAsString(), AuthResponse.class);
         authToken = authResponse.getToken();
+        refreshToken = authResponse.getRefreshToken();
 
         assertNotNull(authToken);
+        assertNotNull(refreshToken);
     }
 
     @Test
@@ -100,4 +106,50 @@ class CustomerApiIntegrationTest extends BaseTest {
 
         assertTrue(customerRepository.findById(createdCustomer.getId()).isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRefreshIssuesUsableTokensOnce() throws Exception {
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken(refreshToken);
+
+        MvcResult result = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        AuthResponse refreshed = objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class);
+
+        mockMvc.perform(get("/api/customers")
+                        .header("Authorization", "Bearer " + refreshed.getToken()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLoginRehashesOutdatedPassword() throws Exception {
+        User user = new User();
+        user.setUsername("legacyuser");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("StrongPassword123!"));
+        userRepository.save(user);
+        long tokenVersion = userRepository.findByUsername("legacyuser").orElseThrow().getTokenVersion();
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("legacyuser");
+        loginRequest.setPassword("StrongPassword123!");
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk());
+        }
+
+        User rehashed = userRepository.findByUsername("legacyuser").orElseThrow();
+        assertTrue(rehashed.getPassword().startsWith("{bcrypt}"));
+        assertFalse(passwordEncoder.upgradeEncoding(rehashed.getPassword()));
+        assertTrue(passwordEncoder.matches("StrongPassword123!", rehashed.getPassword()));
+        assertEquals(tokenVersion, rehashed.getTokenVersion());
+    }
+}
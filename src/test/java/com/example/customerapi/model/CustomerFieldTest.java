@@ -0,0 +1,37 @@
+package com.example.customerapi.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerFieldTest {
+
+    @Test
+    void testParse() {
+        assertEquals(EnumSet.of(CustomerField.ID, CustomerField.EMAIL, CustomerField.LAST_NAME),
+                CustomerField.parse("email, id,,lastName,email"));
+    }
+
+    @Test
+    void testParse_Invalid() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> CustomerField.parse("id,password"));
+        assertTrue(unknown.getMessage().contains("password"));
+        assertThrows(IllegalArgumentException.class, () -> CustomerField.parse(" , "));
+    }
+
+    @Test
+    void testGetAndSet() {
+        Customer customer = new Customer();
+
+        CustomerField.DATE_OF_BIRTH.set(customer, LocalDate.of(1990, 1, 1));
+        CustomerField.VERSION.set(customer, 4L);
+
+        assertEquals(LocalDate.of(1990, 1, 1), customer.getDateOfBirth());
+        assertEquals(4L, CustomerField.VERSION.get(customer));
+        assertNull(CustomerField.EMAIL.get(customer));
+    }
+}
@@ -2,17 +2,23 @@ package com.example.customerapi.repository;
 
 import com.example.customerapi.BaseTest;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,23 +76,174 @@ class CustomerRepositoryTest extends BaseTest {
     }
 
     @Test
-    void testFindAverageAge() {
-        Customer customer1 = createValidCustomer();
-        customer1.setDateOfBirth(LocalDate.now().minusYears(30));
-        customerRepository.save(customer1);
+    void testCountByDateOfBirth() {
+        customerRepository.save(createValidCustomer());
+        customerRepository.save(createValidCustomer());
+        Customer younger = createValidCustomer();
+        younger.setDateOfBirth(LocalDate.of(2000, 5, 5));
+        customerRepository.save(younger);
+
+        CustomerRepositoryCustom.BirthDateCounts counts = customerRepository.countByDateOfBirth();
+
+        assertEquals(2, counts.getCounts().size());
+        assertEquals(2, counts.getCounts().get(LocalDate.of(1990, 1, 1)));
+        // The counts include this transaction's inserts, and so does the snapshot returned with them
+        assertTrue(counts.getSnapshot().isVisible(customerRepository.currentTransactionId()));
+    }
+
+    @Test
+    void testCountByDateOfBirth_EmptyTableStillHasSnapshot() {
+        CustomerRepositoryCustom.BirthDateCounts counts = customerRepository.countByDateOfBirth();
+
+        assertTrue(counts.getCounts().isEmpty());
+        assertNotNull(counts.getSnapshot());
+    }
+
+    @Test
+    void testFindPageAfter() {
+        Customer first = createValidCustomer();
+        first.setLastName("Adams");
+        customerRepository.save(first);
+        Customer second = createValidCustomer();
+        second.setLastName("Baker");
+        customerRepository.save(second);
+
+        List<Customer> firstPage = customerRepository.findFirstPage(Limit.of(1));
+        assertEquals(1, firstPage.size());
+        assertEquals("Adams", firstPage.get(0).getLastName());
+
+        List<Customer> nextPage = customerRepository.findPageAfter("Adams", firstPage.get(0).getId(), Limit.of(10));
+        assertEquals(1, nextPage.size());
+        assertEquals("Baker", nextPage.get(0).getLastName());
+    }
+
+    @Test
+    void testStreamAll() {
+        customerRepository.save(createValidCustomer());
+        customerRepository.save(createValidCustomer());
+
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            assertEquals(2, customers.count());
+        }
+    }
+
+    @Test
+    void testInsertAll() {
+        List<Customer> customers = List.of(createValidCustomer(), createValidCustomer(), createValidCustomer());
+
+        customerRepository.insertAll(customers);
+
+        assertTrue(customers.stream().allMatch(customer -> customer.getId() != null));
+        assertEquals(3, customerRepository.count());
+    }
+
+    @Test
+    void testFindExistingEmails() {
+        Customer customer = customerRepository.save(createValidCustomer());
 
-        Customer customer2 = createValidCustomer();
-        customer2.setDateOfBirth(LocalDate.now().minusYears(40));
-        customerRepository.save(customer2);
+        Set<String> existing = customerRepository.findExistingEmails(List.of(customer.getEmail(), "unknown@example.com"));
 
-        Double averageAge = customerRepository.findAverageAge();
-        assertEquals(35.0, averageAge, 0.1);
+        assertEquals(Set.of(customer.getEmail()), existing);
     }
 
     @Test
-    void testFindAverageAge_NoCustomers() {
-        Double averageAge = customerRepository.findAverageAge();
-        assertEquals(0.0, averageAge);
+    void testInsertNewSkipsTakenEmails() {
+        Customer existing = customerRepository.save(createValidCustomer());
+        Customer taken = createValidCustomer();
+        taken.setEmail(existing.getEmail());
+        Customer fresh = createValidCustomer();
+        Customer repeated = createValidCustomer();
+        repeated.setEmail(fresh.getEmail());
+        Customer withoutPhone = createValidCustomer();
+        withoutPhone.setPhoneNumber(null);
+        withoutPhone.setLastName("O\"Brien, Jr.");
+
+        List<Customer> stored = customerRepository.insertNew(List.of(taken, fresh, repeated, withoutPhone));
+
+        assertEquals(2, stored.size());
+        assertSame(fresh, stored.get(0));
+        assertSame(withoutPhone, stored.get(1));
+        assertNull(taken.getId());
+        Customer reloaded = customerRepository.findById(withoutPhone.getId()).orElseThrow();
+        assertEquals("O\"Brien, Jr.", reloaded.getLastName());
+        assertNull(reloaded.getPhoneNumber());
+        assertEquals(3, customerRepository.count());
+    }
+
+    @Test
+    void testUpdate() {
+        Customer saved = customerRepository.saveAndFlush(createValidCustomer());
+        Customer changes = new Customer(null, "Smith", null, LocalDate.of(2000, 2, 2), null);
+
+        CustomerRepositoryCustom.UpdatedCustomer updated = customerRepository.update(saved.getId(), changes, 0L).orElseThrow();
+
+        assertEquals("John", updated.getCustomer().getFirstName());
+        assertEquals("Smith", updated.getCustomer().getLastName());
+        assertEquals(LocalDate.of(2000, 2, 2), updated.getCustomer().getDateOfBirth());
+        assertEquals(LocalDate.of(1990, 1, 1), updated.getPreviousDateOfBirth());
+        assertEquals(1L, updated.getCustomer().getVersion());
+        assertTrue(customerRepository.update(saved.getId(), changes, 0L).isEmpty());
+        assertTrue(customerRepository.update(saved.getId(), changes, null).isPresent());
+    }
+
+    @Test
+    void testDeleteReturningDateOfBirth() {
+        Customer saved = customerRepository.saveAndFlush(createValidCustomer());
+
+        assertEquals(Optional.of(LocalDate.of(1990, 1, 1)), customerRepository.deleteReturningDateOfBirth(saved.getId()));
+        assertTrue(customerRepository.deleteReturningDateOfBirth(saved.getId()).isEmpty());
+        assertEquals(0, customerRepository.count());
+    }
+
+    @Test
+    void testFindPageFields() {
+        Customer first = createValidCustomer();
+        first.setLastName("Adams");
+        customerRepository.save(first);
+        Customer second = createValidCustomer();
+        second.setLastName("Baker");
+        customerRepository.saveAndFlush(second);
+        Set<CustomerField> fields = EnumSet.of(CustomerField.ID, CustomerField.LAST_NAME, CustomerField.EMAIL);
+
+        List<Customer> firstPage = customerRepository.findPageFields(fields, null, null, 1);
+        assertEquals(1, firstPage.size());
+        assertEquals("Adams", firstPage.get(0).getLastName());
+        assertEquals(first.getEmail(), firstPage.get(0).getEmail());
+        assertNull(firstPage.get(0).getFirstName());
+        assertNull(firstPage.get(0).getDateOfBirth());
+
+        List<Customer> nextPage = customerRepository.findPageFields(fields, "Adams", firstPage.get(0).getId(), 10);
+        assertEquals(1, nextPage.size());
+        assertEquals(second.getId(), nextPage.get(0).getId());
+    }
+
+    @Test
+    void testFindFieldsById() {
+        Customer saved = customerRepository.saveAndFlush(createValidCustomer());
+
+        Customer found = customerRepository.findFieldsById(saved.getId(), EnumSet.of(CustomerField.EMAIL)).orElseThrow();
+
+        assertEquals(saved.getEmail(), found.getEmail());
+        assertNull(found.getId());
+        assertTrue(customerRepository.findFieldsById(UUID.randomUUID(), EnumSet.of(CustomerField.EMAIL)).isEmpty());
+    }
+
+    @Test
+    void testFindFieldsByDateOfBirthBetween() {
+        customerRepository.save(createValidCustomer());
+        Customer younger = createValidCustomer();
+        younger.setDateOfBirth(LocalDate.of(2000, 5, 5));
+        customerRepository.save(younger);
+        Customer youngest = createValidCustomer();
+        youngest.setDateOfBirth(LocalDate.of(2010, 5, 5));
+        customerRepository.saveAndFlush(youngest);
+
+        List<Customer> found = customerRepository.findFieldsByDateOfBirthBetween(
+                EnumSet.of(CustomerField.DATE_OF_BIRTH), LocalDate.of(1995, 1, 1), LocalDate.of(2020, 1, 1),
+                PageRequest.of(0, 1));
+
+        assertEquals(1, found.size());
+        assertEquals(LocalDate.of(2000, 5, 5), found.get(0).getDateOfBirth());
     }
 
     private Customer createValidCustomer() {
@@ -0,0 +1,92 @@
+package com.example.customerapi.repository;
+
+import com.example.customerapi.BaseTest;
+import com.example.customerapi.model.RefreshToken;
+import com.example.customerapi.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RefreshTokenRepositoryTest extends BaseTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = new User();
+        user.setUsername("testuser");
+        user.setPassword("password");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void testFindByTokenHash() {
+        RefreshToken saved = refreshTokenRepository.save(createToken(new byte[]{1, 2, 3}, UUID.randomUUID(), Duration.ofHours(1)));
+
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(new byte[]{1, 2, 3});
+
+        assertTrue(found.isPresent());
+        assertEquals(saved.getId(), found.get().getId());
+        assertEquals("testuser", found.get().getUser().getUsername());
+        assertTrue(refreshTokenRepository.findByTokenHash(new byte[]{3, 2, 1}).isEmpty());
+    }
+
+    @Test
+    void testMarkUsedOnlyOnce() {
+        RefreshToken saved = refreshTokenRepository.save(createToken(new byte[]{1}, UUID.randomUUID(), Duration.ofHours(1)));
+
+        assertEquals(1, refreshTokenRepository.markUsed(saved.getId(), Instant.now()));
+        assertEquals(0, refreshTokenRepository.markUsed(saved.getId(), Instant.now()));
+    }
+
+    @Test
+    void testDeleteByFamilyId() {
+        UUID family = UUID.randomUUID();
+        refreshTokenRepository.save(createToken(new byte[]{1}, family, Duration.ofHours(1)));
+        refreshTokenRepository.save(createToken(new byte[]{2}, family, Duration.ofHours(1)));
+        refreshTokenRepository.save(createToken(new byte[]{3}, UUID.randomUUID(), Duration.ofHours(1)));
+
+        assertEquals(2, refreshTokenRepository.deleteByFamilyId(family));
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    void testDeleteExpired() {
+        refreshTokenRepository.save(createToken(new byte[]{1}, UUID.randomUUID(), Duration.ofHours(-1)));
+        refreshTokenRepository.save(createToken(new byte[]{2}, UUID.randomUUID(), Duration.ofHours(1)));
+
+        assertEquals(1, refreshTokenRepository.deleteExpired(Instant.now()));
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    private RefreshToken createToken(byte[] hash, UUID familyId, Duration validFor) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash);
+        refreshToken.setUser(user);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserTokenVersion(user.getTokenVersion());
+        refreshToken.setExpiresAt(Instant.now().plus(validFor));
+        return refreshToken;
+    }
+}
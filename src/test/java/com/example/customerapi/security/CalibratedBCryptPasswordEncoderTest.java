@@ -0,0 +1,52 @@
+package com.example.customerapi.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void testUpgradesHashesWithDifferentCost() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void testIgnoresHashesWithoutCost() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding(""));
+        assertFalse(encoder.upgradeEncoding("plaintext"));
+    }
+
+    @Test
+    void testMatchesHashesOfAnyCost() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.matches("other", new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    void testCalibrationNeverGoesBelowMinimum() {
+        CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofNanos(1), 7);
+
+        assertEquals(7, encoder.getStrength());
+    }
+
+    @Test
+    void testCalibrationGrowsWithBudget() {
+        int small = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofNanos(1), 4).getStrength();
+        int large = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMillis(200), 4).getStrength();
+
+        assertTrue(large > small, "strength " + large + " for 200 ms should exceed strength " + small + " for 1 ns");
+    }
+}
@@ -9,6 +9,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,10 +19,13 @@ import org.springframework.test.annotation.DirtiesContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
@@ -32,6 +37,9 @@ class JwtAuthenticationFilterTest extends BaseTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private UserTokenVersions userTokenVersions;
+
     @Mock
     private HttpServletRequest request;
 
@@ -43,12 +51,14 @@ class JwtAuthenticationFilterTest extends BaseTest {
 
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     private UserDetails userDetails;
+    private JwtClaims claims;
 
     @BeforeEach
     void setUp() throws Exception {
         try (AutoCloseable mocks = MockitoAnnotations.openMocks(this)) {
-            jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+            jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, userTokenVersions, false);
             userDetails = new User("testuser", "password", new ArrayList<>());
+            claims = new JwtClaims("testuser", new Date(), new Date(System.currentTimeMillis() + 60_000));
             SecurityContextHolder.clearContext();
         }
     }
@@ -76,29 +86,67 @@ class JwtAuthenticationFilterTest extends BaseTest {
     @Test
     void testDoFilterInternal_ValidToken() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn("Bearer valid_token");
-        when(jwtUtil.extractUsername("valid_token")).thenReturn("testuser");
+        when(jwtUtil.parseToken("valid_token")).thenReturn(claims);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(anyString(), any(UserDetails.class))).thenReturn(true);
+        when(jwtUtil.validateToken(any(JwtClaims.class), any(UserDetails.class))).thenReturn(true);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verify(jwtUtil).parseToken("valid_token");
         verify(userDetailsService).loadUserByUsername("testuser");
-        verify(jwtUtil).validateToken("valid_token", userDetails);
+        verify(jwtUtil).validateToken(claims, userDetails);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
     void testDoFilterInternal_InvalidToken() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn("Bearer invalid_token");
-        when(jwtUtil.extractUsername("invalid_token")).thenReturn("testuser");
+        when(jwtUtil.parseToken("invalid_token")).thenReturn(claims);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(anyString(), any(UserDetails.class))).thenReturn(false);
+        when(jwtUtil.validateToken(any(JwtClaims.class), any(UserDetails.class))).thenReturn(false);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
         verify(userDetailsService).loadUserByUsername("testuser");
-        verify(jwtUtil).validateToken("invalid_token", userDetails);
+        verify(jwtUtil).validateToken(claims, userDetails);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessAuthenticatesFromClaims() throws ServletException, IOException {
+        JwtAuthenticationFilter statelessFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, userTokenVersions, true);
+        JwtClaims statelessClaims = new JwtClaims("testuser", new Date(), new Date(System.currentTimeMillis() + 60_000),
+                List.of("ROLE_ADMIN"), 3L);
+        when(request.getHeader("Authorization")).thenReturn("Bearer valid_token");
+        when(jwtUtil.parseToken("valid_token")).thenReturn(statelessClaims);
+        when(userTokenVersions.isCurrent("testuser", 3L)).thenReturn(true);
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessRejectsRevokedVersion() throws ServletException, IOException {
+        JwtAuthenticationFilter statelessFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, userTokenVersions, true);
+        JwtClaims statelessClaims = new JwtClaims("testuser", new Date(), new Date(System.currentTimeMillis() + 60_000),
+                List.of(), 2L);
+        when(request.getHeader("Authorization")).thenReturn("Bearer revoked_token");
+        when(jwtUtil.parseToken("revoked_token")).thenReturn(statelessClaims);
+        when(userTokenVersions.isCurrent("testuser", 2L)).thenReturn(false);
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.example.customerapi.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtClaimsCacheTest {
+
+    private JwtClaimsCache jwtClaimsCache;
+    private AtomicInteger parses;
+
+    @BeforeEach
+    void setUp() {
+        jwtClaimsCache = new JwtClaimsCache(100);
+        parses = new AtomicInteger();
+    }
+
+    @Test
+    void testParsesEachTokenOnce() {
+        JwtClaims claims = claimsExpiringIn(60_000);
+
+        jwtClaimsCache.get("token", token -> parse(claims));
+        JwtClaims cached = jwtClaimsCache.get("token", token -> parse(claims));
+
+        assertSame(claims, cached);
+        assertEquals(1, parses.get());
+        assertEquals(1, jwtClaimsCache.stats().hitCount());
+        assertEquals(1, jwtClaimsCache.stats().missCount());
+    }
+
+    @Test
+    void testExpiredClaimsAreNotServed() {
+        JwtClaims expired = claimsExpiringIn(-1_000);
+
+        jwtClaimsCache.get("token", token -> parse(expired));
+        jwtClaimsCache.get("token", token -> parse(expired));
+
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void testFailedParsesAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> jwtClaimsCache.get("bad", token -> {
+            throw new IllegalStateException("bad signature");
+        }));
+
+        JwtClaims claims = claimsExpiringIn(60_000);
+        assertSame(claims, jwtClaimsCache.get("bad", token -> parse(claims)));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        JwtClaims claims = claimsExpiringIn(60_000);
+        jwtClaimsCache.get("token", token -> parse(claims));
+
+        jwtClaimsCache.invalidateAll();
+        jwtClaimsCache.get("token", token -> parse(claims));
+
+        assertEquals(2, parses.get());
+    }
+
+    private JwtClaims parse(JwtClaims claims) {
+        parses.incrementAndGet();
+        return claims;
+    }
+
+    private static JwtClaims claimsExpiringIn(long millis) {
+        return new JwtClaims("testuser", new Date(), new Date(System.currentTimeMillis() + millis));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.customerapi.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String FIRST_SECRET = "firstSecretKeyWithAtLeast32CharactersForHmacSha256";
+    private static final String SECOND_SECRET = "secondSecretKeyWithAtLeast32CharactersForHmacSha256";
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyRingFile;
+    private JwtClaimsCache claimsCache;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        keyRingFile = tempDir.resolve("jwt-keyring.properties");
+        claimsCache = new JwtClaimsCache(100);
+        userDetails = new User("testuser", "password", new ArrayList<>());
+    }
+
+    @Test
+    void testSingleKeyFromSecret() {
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "primary", "", claimsCache);
+        JwtUtil jwtUtil = new JwtUtil(keyRing, 3600L, claimsCache, null, false);
+
+        String token = jwtUtil.generateToken(userDetails);
+
+        assertEquals("primary", keyRing.getActiveKeyId());
+        assertEquals("primary", keyRing.getParser().parseSignedClaims(token).getHeader().getKeyId());
+        assertEquals("testuser", jwtUtil.parseToken(token).getUsername());
+    }
+
+    @Test
+    void testTokensWithoutKeyIdVerifyWithActiveKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "primary", "", claimsCache);
+        String legacyToken = Jwts.builder()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(FIRST_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals("testuser", keyRing.getParser().parseSignedClaims(legacyToken).getPayload().getSubject());
+    }
+
+    @Test
+    void testRotationKeepsOldTokensValidUntilRetired() throws IOException {
+        writeKeyRing("active=one\nkey.one=" + FIRST_SECRET + "\n");
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "unused", keyRingFile.toString(), claimsCache);
+        JwtUtil jwtUtil = new JwtUtil(keyRing, 3600L, claimsCache, null, false);
+        String oldToken = jwtUtil.generateToken(userDetails);
+
+        writeKeyRing("active=two\nkey.one=" + FIRST_SECRET + "\nkey.two=" + SECOND_SECRET + "\n");
+        keyRing.reloadIfChanged();
+        String newToken = jwtUtil.generateToken(userDetails);
+
+        assertEquals("two", keyRing.getActiveKeyId());
+        assertEquals("testuser", jwtUtil.parseToken(oldToken).getUsername());
+        assertEquals("testuser", jwtUtil.parseToken(newToken).getUsername());
+
+        writeKeyRing("active=two\nkey.two=" + SECOND_SECRET + "\n");
+        keyRing.reloadIfChanged();
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(oldToken));
+        assertEquals("testuser", jwtUtil.parseToken(newToken).getUsername());
+    }
+
+    @Test
+    void testSigningKeyIdAndKeyComeFromTheSameRing() throws IOException {
+        writeKeyRing("active=one\nkey.one=" + FIRST_SECRET + "\n");
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "unused", keyRingFile.toString(), claimsCache);
+
+        writeKeyRing("active=two\nkey.one=" + FIRST_SECRET + "\nkey.two=" + SECOND_SECRET + "\n");
+        keyRing.reloadIfChanged();
+        JwtKeyRing.SigningKey signingKey = keyRing.getActiveSigningKey();
+
+        assertEquals("two", signingKey.getKeyId());
+        assertEquals(Keys.hmacShaKeyFor(SECOND_SECRET.getBytes(StandardCharsets.UTF_8)), signingKey.getKey());
+    }
+
+    @Test
+    void testAddingKeyKeepsCachedClaims() throws IOException {
+        writeKeyRing("active=one\nkey.one=" + FIRST_SECRET + "\n");
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "unused", keyRingFile.toString(), claimsCache);
+        JwtUtil jwtUtil = new JwtUtil(keyRing, 3600L, claimsCache, null, false);
+        String token = jwtUtil.generateToken(userDetails);
+        jwtUtil.parseToken(token);
+
+        writeKeyRing("active=two\nkey.one=" + FIRST_SECRET + "\nkey.two=" + SECOND_SECRET + "\n");
+        keyRing.reloadIfChanged();
+        jwtUtil.parseToken(token);
+
+        assertEquals(1, claimsCache.stats().hitCount());
+    }
+
+    @Test
+    void testInvalidReloadKeepsCurrentKeys() throws IOException {
+        writeKeyRing("active=one\nkey.one=" + FIRST_SECRET + "\n");
+        JwtKeyRing keyRing = new JwtKeyRing(FIRST_SECRET, "unused", keyRingFile.toString(), claimsCache);
+
+        writeKeyRing("active=missing\nkey.one=" + FIRST_SECRET + "\n");
+        keyRing.reloadIfChanged();
+
+        assertEquals("one", keyRing.getActiveKeyId());
+    }
+
+    @Test
+    void testMissingActiveKeyFailsOnStartup() throws IOException {
+        writeKeyRing("key.one=" + FIRST_SECRET + "\n");
+
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(FIRST_SECRET, "unused", keyRingFile.toString(), claimsCache));
+    }
+
+    private void writeKeyRing(String content) throws IOException {
+        FileTime previous = Files.exists(keyRingFile) ? Files.getLastModifiedTime(keyRingFile) : null;
+        Files.writeString(keyRingFile, content);
+        if (previous != null) {
+            // File systems with coarse timestamps would otherwise hide quick successive rewrites
+            Files.setLastModifiedTime(keyRingFile, FileTime.fromMillis(previous.toMillis() + 1000));
+        }
+    }
+}
@@ -4,16 +4,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import com.example.customerapi.BaseTest;
+import io.jsonwebtoken.JwtException;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
 @SpringBootTest
@@ -26,6 +31,12 @@ class JwtUtilTest extends BaseTest{
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtClaimsCache jwtClaimsCache;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
     private UserDetails userDetails;
 
     @BeforeEach
@@ -68,4 +79,48 @@ class JwtUtilTest extends BaseTest{
         boolean isValid = jwtUtil.validateToken(token, differentUser);
         assertFalse(isValid);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParseToken_CachesVerifiedClaims() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        JwtClaims first = jwtUtil.parseToken(token);
+        long hitsBefore = jwtClaimsCache.stats().hitCount();
+        JwtClaims second = jwtUtil.parseToken(token);
+
+        assertEquals("testuser", first.getUsername());
+        assertSame(first, second);
+        assertEquals(hitsBefore + 1, jwtClaimsCache.stats().hitCount());
+    }
+
+    @Test
+    void testParseToken_TamperedToken() {
+        String token = jwtUtil.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+    }
+
+    @Test
+    void testGenerateToken_StatelessEmbedsRolesAndUserVersion() {
+        UserTokenVersions userTokenVersions = mock(UserTokenVersions.class);
+        when(userTokenVersions.getVersion("admin")).thenReturn(4L);
+        JwtUtil statelessJwtUtil = new JwtUtil(jwtKeyRing, 3600L, new JwtClaimsCache(10), userTokenVersions, true);
+        UserDetails admin = new User("admin", "password", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        JwtClaims claims = statelessJwtUtil.parseToken(statelessJwtUtil.generateToken(admin));
+
+        assertEquals("admin", claims.getUsername());
+        assertEquals(List.of("ROLE_ADMIN"), claims.getRoles());
+        assertEquals(4L, claims.getUserVersion());
+    }
+
+    @Test
+    void testGenerateToken_DefaultModeOmitsUserVersion() {
+        JwtClaims claims = jwtUtil.parseToken(jwtUtil.generateToken(userDetails));
+
+        assertNull(claims.getUserVersion());
+        assertTrue(claims.getRoles().isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.customerapi.security;
+
+import com.example.customerapi.model.User;
+import com.example.customerapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserTokenVersionsTest {
+
+    private UserRepository userRepository;
+    private UserTokenVersions userTokenVersions;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userTokenVersions = new UserTokenVersions(userRepository);
+    }
+
+    @Test
+    void testCurrentVersionIsAnsweredFromMemory() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("testuser", 2)));
+
+        assertTrue(userTokenVersions.isCurrent("testuser", 2L));
+        assertTrue(userTokenVersions.isCurrent("testuser", 2L));
+
+        verify(userRepository, times(1)).findAllTokenVersions();
+        verify(userRepository, never()).findTokenVersionByUsername(any());
+    }
+
+    @Test
+    void testOlderVersionIsRevoked() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("testuser", 2)));
+
+        assertFalse(userTokenVersions.isCurrent("testuser", 1L));
+        verify(userRepository, never()).findTokenVersionByUsername(any());
+    }
+
+    @Test
+    void testMissingVersionIsRejected() {
+        assertFalse(userTokenVersions.isCurrent("testuser", null));
+    }
+
+    @Test
+    void testNewerVersionIsLookedUp() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("testuser", 2)));
+        when(userRepository.findTokenVersionByUsername("testuser")).thenReturn(Optional.of(3L));
+
+        assertTrue(userTokenVersions.isCurrent("testuser", 3L));
+        assertFalse(userTokenVersions.isCurrent("testuser", 2L));
+    }
+
+    @Test
+    void testUnknownUserIsLookedUp() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of());
+        when(userRepository.findTokenVersionByUsername("newuser")).thenReturn(Optional.of(0L));
+        when(userRepository.findTokenVersionByUsername("deleted")).thenReturn(Optional.empty());
+
+        assertTrue(userTokenVersions.isCurrent("newuser", 0L));
+        assertFalse(userTokenVersions.isCurrent("deleted", 0L));
+    }
+
+    @Test
+    void testReconcileDropsDeletedUsersAndKeepsNewerSaves() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("testuser", 1), row("olduser", 0)));
+        assertTrue(userTokenVersions.isCurrent("olduser", 0L));
+
+        User saved = new User();
+        saved.setUsername("testuser");
+        saved.setTokenVersion(2);
+        userTokenVersions.recordSaved(saved);
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("testuser", 1)));
+        when(userRepository.findTokenVersionByUsername("olduser")).thenReturn(Optional.empty());
+        userTokenVersions.reconcile();
+
+        assertTrue(userTokenVersions.isCurrent("testuser", 2L));
+        assertFalse(userTokenVersions.isCurrent("olduser", 0L));
+    }
+
+    @Test
+    void testReconcileBeforeFirstUseDoesNotLoad() {
+        userTokenVersions.reconcile();
+
+        verify(userRepository, never()).findAllTokenVersions();
+    }
+
+    private static UserRepository.UsernameTokenVersion row(String username, long version) {
+        return new UserRepository.UsernameTokenVersion() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public long getTokenVersion() {
+                return version;
+            }
+        };
+    }
+}
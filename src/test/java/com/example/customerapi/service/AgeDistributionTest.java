@@ -0,0 +1,61 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.AgeHistogramBucket;
+import com.example.customerapi.dataTransferObject.AgeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgeDistributionTest {
+
+    @Test
+    void testHistogram() {
+        long[] countsByAge = new long[100];
+        countsByAge[23] = 2;
+        countsByAge[24] = 1;
+        countsByAge[36] = 4;
+        AgeDistribution distribution = new AgeDistribution(countsByAge, "v1");
+
+        List<AgeHistogramBucket> histogram = distribution.getHistogram(5);
+
+        assertEquals(4, histogram.size());
+        assertEquals(20, histogram.get(0).getFromAge());
+        assertEquals(24, histogram.get(0).getToAge());
+        assertEquals(3, histogram.get(0).getCount());
+        assertEquals(0, histogram.get(1).getCount());
+        assertEquals(0, histogram.get(2).getCount());
+        assertEquals(35, histogram.get(3).getFromAge());
+        assertEquals(4, histogram.get(3).getCount());
+    }
+
+    @Test
+    void testHistogram_Empty() {
+        AgeDistribution distribution = new AgeDistribution(new long[100], "v1");
+
+        assertTrue(distribution.getHistogram(5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> distribution.getHistogram(0));
+    }
+
+    @Test
+    void testSummary() {
+        long[] countsByAge = new long[100];
+        countsByAge[20] = 1;
+        countsByAge[30] = 1;
+        countsByAge[40] = 1;
+        countsByAge[50] = 1;
+        AgeDistribution distribution = new AgeDistribution(countsByAge, "v1");
+
+        AgeSummary summary = distribution.getSummary();
+
+        assertEquals(4, summary.getCount());
+        assertEquals(20, summary.getMin());
+        assertEquals(50, summary.getMax());
+        assertEquals(35.0, summary.getMean());
+        assertEquals(35.0, summary.getMedian());
+        assertEquals(50, summary.getP90());
+        assertEquals(50, summary.getP99());
+        assertSame(summary, distribution.getSummary());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.RenderedCustomer;
+import com.example.customerapi.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CustomerCache customerCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        customerCache = new CustomerCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), nanos::get);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testLoadsEachCustomerOnce() {
+        Customer customer = customer();
+
+        customerCache.get(customer.getId(), id -> load(customer));
+        Optional<Customer> cached = customerCache.get(customer.getId(), id -> load(customer));
+
+        assertEquals(customer.getEmail(), cached.orElseThrow().getEmail());
+        assertEquals(1, loads.get());
+        assertEquals(1, customerCache.stats().hitCount());
+        assertEquals(1, customerCache.stats().missCount());
+    }
+
+    @Test
+    void testMissingCustomersAreCachedBriefly() {
+        UUID id = UUID.randomUUID();
+
+        customerCache.get(id, this::loadNothing);
+        customerCache.get(id, this::loadNothing);
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        customerCache.get(id, this::loadNothing);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testPresentCustomersExpireAfterMaxStaleness() {
+        Customer customer = customer();
+        customerCache.get(customer.getId(), id -> load(customer));
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        customerCache.get(customer.getId(), id -> load(customer));
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        customerCache.get(customer.getId(), id -> load(customer));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testWritesReplaceAndRemoveEntries() {
+        Customer customer = customer();
+        customerCache.get(customer.getId(), this::loadNothing);
+
+        customerCache.recordSaved(customer);
+        assertEquals(Optional.of(1L), customerCache.getVersion(customer.getId(), id -> Optional.empty()));
+        assertEquals("Doe", customerCache.get(customer.getId(), this::loadNothing).orElseThrow().getLastName());
+
+        customerCache.recordRemoved(customer.getId());
+        assertTrue(customerCache.get(customer.getId(), this::loadNothing).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testVersionOfUncachedCustomerIsNotCached() {
+        UUID id = UUID.randomUUID();
+
+        assertEquals(Optional.of(3L), customerCache.getVersion(id, key -> Optional.of(3L)));
+        customerCache.get(id, this::loadNothing);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testChangingReturnedCustomerDoesNotAffectCachedEntry() {
+        Customer customer = customer();
+        customerCache.recordSaved(customer);
+        customer.setLastName("Changed");
+
+        customerCache.get(customer.getId(), id -> load(customer)).orElseThrow().setFirstName("Changed");
+
+        Customer cached = customerCache.get(customer.getId(), id -> load(customer)).orElseThrow();
+        assertEquals("John", cached.getFirstName());
+        assertEquals("Doe", cached.getLastName());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testRendersEachVersionOnce() {
+        Customer customer = customer();
+        AtomicInteger renders = new AtomicInteger();
+        Function<Customer, RenderedCustomer> renderer = cached -> new RenderedCustomer(
+                "\"" + cached.getVersion() + "\"", new byte[renders.incrementAndGet()]);
+
+        RenderedCustomer first = customerCache.getRendered(customer.getId(), id -> load(customer), renderer).orElseThrow();
+        assertSame(first, customerCache.getRendered(customer.getId(), id -> load(customer), renderer).orElseThrow());
+        assertEquals("\"1\"", first.getETag());
+
+        customer.setVersion(2L);
+        customerCache.recordSaved(customer);
+        RenderedCustomer updated = customerCache.getRendered(customer.getId(), id -> load(customer), renderer).orElseThrow();
+        assertEquals("\"2\"", updated.getETag());
+        assertEquals(2, renders.get());
+        assertEquals(1, loads.get());
+
+        customerCache.recordRemoved(customer.getId());
+        assertTrue(customerCache.getRendered(customer.getId(), this::loadNothing, renderer).isEmpty());
+        assertEquals(2, renders.get());
+    }
+
+    private Optional<Customer> load(Customer customer) {
+        loads.incrementAndGet();
+        return Optional.of(customer);
+    }
+
+    private Optional<Customer> loadNothing(UUID id) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private static Customer customer() {
+        Customer customer = new Customer("John", "Doe", UUID.randomUUID() + "@example.com",
+                LocalDate.of(1990, 1, 1), "+1234567890");
+        customer.setId(UUID.randomUUID());
+        customer.setVersion(1L);
+        return customer;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.BaseTest;
+import com.example.customerapi.dataTransferObject.CustomerBatchItemResult;
+import com.example.customerapi.dataTransferObject.CustomerImportError;
+import com.example.customerapi.dataTransferObject.CustomerImportResult;
+import com.example.customerapi.exception.InvalidCsvException;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest
+class CustomerImportServiceTest extends BaseTest {
+
+    private static final String HEADER = "email,firstName,lastName,dateOfBirth,phoneNumber\n";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerValidator customerValidator;
+
+    @Autowired
+    private CustomerStatistics customerStatistics;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customerStatistics.reconcile();
+        // Tiny chunks and window so a handful of rows goes through several chunks and back pressure
+        importService = new CustomerImportService(customerRepository, customerValidator, customerStatistics,
+                customerSearchIndex, customerCache, transactionManager, 2, 2, 2, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void testImportCustomers() throws IOException {
+        Customer existing = customerRepository.save(new Customer("Jane", "Doe", "jane@example.com",
+                LocalDate.of(1985, 5, 5), "+1234567890"));
+        customerStatistics.reconcile();
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 7; i++) {
+            csv.append("user").append(i).append("@example.com,John,\"Doe, ").append(i).append("\",1990-01-01,+1234567890\n");
+        }
+        csv.append("\n");
+        csv.append(existing.getEmail()).append(",Jane,Doe,1985-05-05,+1234567890\n");
+        csv.append("user1@example.com,John,Doe,1990-01-01,+1234567890\n");
+        csv.append("bad@example.com,John,Doe,01/01/1990,+1234567890\n");
+        csv.append("short@example.com,John\n");
+        csv.append("blank@example.com,,Doe,1990-01-01,+1234567890\n");
+        List<CustomerImportError> errors = new ArrayList<>();
+
+        CustomerImportResult result = importService.importCustomers(new StringReader(csv.toString()), errors::add);
+
+        assertEquals(7, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of(10L, 11L, 12L, 13L, 14L), errors.stream().map(CustomerImportError::getLine).toList());
+        assertEquals(CustomerBatchItemResult.Status.DUPLICATE_EMAIL, errors.get(0).getStatus());
+        assertEquals(CustomerBatchItemResult.Status.DUPLICATE_EMAIL, errors.get(1).getStatus());
+        assertEquals("Date of birth must be an ISO date (yyyy-MM-dd)", errors.get(2).getMessage());
+        assertEquals("Expected 5 fields but found 2", errors.get(3).getMessage());
+        assertEquals(CustomerBatchItemResult.Status.INVALID, errors.get(4).getStatus());
+        assertEquals(8, customerRepository.count());
+        assertEquals(8, customerStatistics.getAgeDistribution().getCount());
+        assertTrue(customerRepository.findExistingEmails(List.of("user3@example.com")).contains("user3@example.com"));
+    }
+
+    @Test
+    void testImportCustomers_UnterminatedQuote() throws IOException {
+        String csv = HEADER + "ok@example.com,John,Doe,1990-01-01,+1234567890\n\"broken@example.com,John,Doe,1990-01-01,+1234567890\n";
+        List<CustomerImportError> errors = new ArrayList<>();
+
+        CustomerImportResult result = importService.importCustomers(new StringReader(csv), errors::add);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(3, errors.get(0).getLine());
+    }
+
+    @Test
+    void testImportCustomers_OverLongRecord() throws IOException {
+        String csv = HEADER + "long@example.com,John," + "x".repeat(1000) + ",1990-01-01,+1234567890\n"
+                + "ok@example.com,John,Doe,1990-01-01,+1234567890\n";
+        List<CustomerImportError> errors = new ArrayList<>();
+
+        CustomerImportResult result = importService.importCustomers(new StringReader(csv), errors::add);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, errors.get(0).getLine());
+        assertEquals(CustomerBatchItemResult.Status.INVALID, errors.get(0).getStatus());
+    }
+
+    @Test
+    void testImportCustomers_IncompleteHeader() {
+        assertThrows(InvalidCsvException.class,
+                () -> importService.importCustomers(new StringReader("email,firstName\n"), error -> { }));
+        assertThrows(InvalidCsvException.class,
+                () -> importService.importCustomers(new StringReader(""), error -> { }));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.dataTransferObject.CustomerSearchHit;
+import com.example.customerapi.model.Customer;
+import com.example.customerapi.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+class CustomerSearchIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (AutoCloseable mocks = MockitoAnnotations.openMocks(this)) {
+            when(customerRepository.findPageFields(any(), isNull(), isNull(), anyInt())).thenReturn(List.of());
+            searchIndex = new CustomerSearchIndex(customerRepository);
+            searchIndex.load();
+        }
+    }
+
+    @Test
+    void testTokenize() {
+        assertArrayEquals(new String[]{"mary", "ann", "o", "brien", "example", "com"},
+                CustomerSearchIndex.tokenize("Mary-Ann", "O'Brien", "mary.ann@example.com"));
+    }
+
+    @Test
+    void testWholeWordsRankBeforePrefixes() {
+        Customer johnson = save("Ann", "Johnson", "ann.j@example.com");
+        Customer johnny = save("Johnny", "Smith", "js@example.com");
+        Customer john = save("John", "Doe", "jd@example.com");
+
+        List<CustomerSearchHit> hits = searchIndex.search("john", 10);
+
+        // Prefix matches follow the dictionary order of the matched word
+        assertEquals(List.of(john.getId(), johnny.getId(), johnson.getId()),
+                hits.stream().map(CustomerSearchHit::getId).toList());
+        assertEquals(List.of(3, 2, 2), hits.stream().map(CustomerSearchHit::getScore).toList());
+    }
+
+    @Test
+    void testSubstringMatch() {
+        Customer customer = save("Ann", "Smith", "a.smith@example.com");
+
+        List<CustomerSearchHit> hits = searchIndex.search("mit", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(customer.getId(), hits.get(0).getId());
+        assertEquals(CustomerSearchIndex.SUBSTRING, hits.get(0).getScore());
+        assertTrue(searchIndex.search("mi", 10).isEmpty());
+    }
+
+    @Test
+    void testEveryWordMustMatch() {
+        Customer janeDoe = save("Jane", "Doe", "jane@example.com");
+        save("Jane", "Smith", "jane.smith@example.com");
+
+        List<CustomerSearchHit> hits = searchIndex.search("jane d", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(janeDoe.getId(), hits.get(0).getId());
+        assertEquals("Doe", hits.get(0).getLastName());
+    }
+
+    @Test
+    void testLimitKeepsTheBestHits() {
+        save("Bob", "Anders", "b1@example.com");
+        Customer exact = save("Bob", "And", "b2@example.com");
+        save("Bob", "Andrews", "b3@example.com");
+
+        List<CustomerSearchHit> hits = searchIndex.search("and", 2);
+
+        assertEquals(2, hits.size());
+        assertEquals(exact.getId(), hits.get(0).getId());
+        assertEquals("Anders", hits.get(1).getLastName());
+    }
+
+    @Test
+    void testCustomersMatchingInSeveralTiersAreReturnedOnce() {
+        for (int i = 0; i < 100; i++) {
+            // Each customer is in the exact, prefix and substring candidates of "ann"
+            save("Ann", "Annabel" + i, "joann" + i + "@example.com");
+        }
+
+        List<CustomerSearchHit> hits = searchIndex.search("ann", 1000);
+
+        assertEquals(100, hits.size());
+        assertEquals(100, hits.stream().map(CustomerSearchHit::getId).distinct().count());
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        Customer customer = save("Anna", "Miller", "anna@example.com");
+        customer.setLastName("Baker");
+        searchIndex.recordSaved(customer);
+
+        assertTrue(searchIndex.search("miller", 10).isEmpty());
+        assertEquals(1, searchIndex.search("baker", 10).size());
+
+        searchIndex.recordRemoved(customer.getId());
+
+        assertTrue(searchIndex.search("baker", 10).isEmpty());
+        assertTrue(searchIndex.search("anna", 10).isEmpty());
+    }
+
+    @Test
+    void testRebuildReadsTheTable() {
+        Customer stored = customer("Greta", "Hall", "greta@example.com");
+        when(customerRepository.findPageFields(any(), isNull(), isNull(), anyInt())).thenReturn(List.of(stored));
+        save("Stale", "Entry", "stale@example.com");
+
+        searchIndex.rebuild();
+
+        assertEquals(stored.getId(), searchIndex.search("greta", 10).get(0).getId());
+        assertTrue(searchIndex.search("stale", 10).isEmpty());
+    }
+
+    @Test
+    void testBlankQuery() {
+        save("Ann", "Smith", "ann@example.com");
+
+        assertTrue(searchIndex.search(" .,", 10).isEmpty());
+        assertTrue(searchIndex.search("ann", 0).isEmpty());
+    }
+
+    private Customer save(String firstName, String lastName, String email) {
+        Customer customer = customer(firstName, lastName, email);
+        searchIndex.recordSaved(customer);
+        return customer;
+    }
+
+    private static Customer customer(String firstName, String lastName, String email) {
+        Customer customer = new Customer(firstName, lastName, email, LocalDate.of(1990, 1, 1), "+1234567890");
+        customer.setId(UUID.randomUUID());
+        return customer;
+    }
+}
@@ -1,22 +1,43 @@
 package com.example.customerapi.service;
 
 import com.example.customerapi.BaseTest;
+import com.example.customerapi.dataTransferObject.CustomerBatchItemResult;
+import com.example.customerapi.dataTransferObject.CustomerBatchResult;
+import com.example.customerapi.dataTransferObject.CustomerPage;
+import com.example.customerapi.dataTransferObject.CustomerPatchRequest;
+import com.example.customerapi.dataTransferObject.CustomerUpsertResult;
 import com.example.customerapi.exception.CustomerNotFoundException;
+import com.example.customerapi.exception.DuplicateCustomerEmailException;
 import com.example.customerapi.exception.InvalidCustomerDataException;
 import com.example.customerapi.model.Customer;
+import com.example.customerapi.model.CustomerField;
 import com.example.customerapi.repository.CustomerRepository;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
 @SpringBootTest
@@ -28,9 +49,13 @@ class CustomerServiceTest extends BaseTest {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerStatistics customerStatistics;
+
     @BeforeEach
     void setUp() {
         customerRepository.deleteAll();
+        customerStatistics.reconcile();
     }
 
     @Test
@@ -41,7 +66,78 @@ class CustomerServiceTest extends BaseTest {
         Customer customer2 = createValidCustomer();
         customer2.setEmail(customer1.getEmail());
 
-        assertThrows(DataIntegrityViolationException.class, () -> customerService.createCustomer(customer2));
+        assertThrows(DuplicateCustomerEmailException.class, () -> customerService.createCustomer(customer2));
+        assertNull(customer2.getId());
+        assertEquals(1, customerService.getAgeDistribution().getCount());
+    }
+
+    @Test
+    void testUpsertCustomerByEmail() {
+        Customer customer = createValidCustomer();
+        String email = customer.getEmail();
+        customer.setEmail(null);
+
+        CustomerUpsertResult created = customerService.upsertCustomerByEmail(email, customer);
+        assertTrue(created.isCreated());
+        assertEquals(0L, created.getCustomer().getVersion());
+
+        Customer resent = createValidCustomer();
+        resent.setEmail(email);
+        String tag = customerService.getCustomersChangeTag();
+        CustomerUpsertResult unchanged = customerService.upsertCustomerByEmail(email, resent);
+        assertEquals(tag, customerService.getCustomersChangeTag());
+        assertFalse(unchanged.isCreated());
+        assertEquals(created.getCustomer().getId(), unchanged.getCustomer().getId());
+        assertEquals(0L, unchanged.getCustomer().getVersion());
+
+        Customer changed = createValidCustomer();
+        changed.setEmail(null);
+        changed.setDateOfBirth(LocalDate.now().minusYears(70));
+        CustomerUpsertResult updated = customerService.upsertCustomerByEmail(email, changed);
+        assertNotEquals(tag, customerService.getCustomersChangeTag());
+        assertFalse(updated.isCreated());
+        assertEquals(1L, updated.getCustomer().getVersion());
+        assertEquals(1, customerRepository.count());
+        assertEquals(70.0, customerService.getAverageAge());
+    }
+
+    @Test
+    void testUpsertCustomerByEmail_ConcurrentUpsertsCreateOnce() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        List<Callable<CustomerUpsertResult>> upserts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Customer customer = createValidCustomer();
+            customer.setEmail(null);
+            customer.setDateOfBirth(LocalDate.now().minusYears(20 + i));
+            upserts.add(() -> customerService.upsertCustomerByEmail(email, customer));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(upserts.size());
+        long created = 0;
+        try {
+            for (Future<CustomerUpsertResult> result : executor.invokeAll(upserts)) {
+                if (result.get().isCreated()) {
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, created);
+        assertEquals(1, customerRepository.count());
+        assertEquals(1, customerService.getAgeDistribution().getCount());
+    }
+
+    @Test
+    void testUpsertCustomerByEmail_Invalid() {
+        Customer customer = createValidCustomer();
+
+        assertThrows(InvalidCustomerDataException.class,
+                () -> customerService.upsertCustomerByEmail("other@example.com", customer));
+        customer.setEmail(null);
+        assertThrows(InvalidCustomerDataException.class,
+                () -> customerService.upsertCustomerByEmail("not-an-email", customer));
+        assertEquals(0, customerRepository.count());
     }
 
     @Test
@@ -85,10 +181,49 @@ class CustomerServiceTest extends BaseTest {
         assertEquals(savedCustomer.getId(), retrievedCustomer.getId());
     }
 
+    @Test
+    void testFindCustomerVersion() {
+        Customer savedCustomer = customerService.createCustomer(createValidCustomer());
+
+        assertEquals(Optional.of(0L), customerService.findCustomerVersion(savedCustomer.getId()));
+        assertTrue(customerService.findCustomerVersion(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void testGetCustomersChangeTag_FollowsWrites() {
+        String initial = customerService.getCustomersChangeTag();
+        Customer savedCustomer = customerService.createCustomer(createValidCustomer());
+        String afterCreate = customerService.getCustomersChangeTag();
+        assertNotEquals(initial, afterCreate);
+
+        customerService.getCustomerById(savedCustomer.getId());
+        assertEquals(afterCreate, customerService.getCustomersChangeTag());
+
+        customerService.deleteCustomer(savedCustomer.getId());
+        assertNotEquals(afterCreate, customerService.getCustomersChangeTag());
+    }
+
+    @Test
+    void testGetCustomersChangeTag_SeesWritesMadeElsewhere() {
+        Customer existing = customerService.createCustomer(createValidCustomer());
+        String initial = customerService.getCustomersChangeTag();
+
+        Customer duplicate = createValidCustomer();
+        duplicate.setEmail(existing.getEmail());
+        assertThrows(DuplicateCustomerEmailException.class, () -> customerService.createCustomer(duplicate));
+        assertEquals(initial, customerService.getCustomersChangeTag());
+
+        // As another instance or a direct database write would
+        customerRepository.save(new Customer("Jane", "Doe", UUID.randomUUID() + "@example.com",
+                LocalDate.of(1985, 5, 5), "+1234567890"));
+        assertNotEquals(initial, customerService.getCustomersChangeTag());
+    }
+
     @Test
     void testGetCustomerById_NotFound() {
         UUID nonExistentId = UUID.randomUUID();
         assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(nonExistentId));
+        assertTrue(customerService.findCustomerById(nonExistentId).isEmpty());
     }
 
     @Test
@@ -100,6 +235,96 @@ class CustomerServiceTest extends BaseTest {
         assertEquals(2, customers.size());
     }
 
+    @Test
+    void testGetCustomersPage() {
+        for (String lastName : List.of("Brown", "Adams", "Clark", "Adams", "Brown")) {
+            Customer customer = createValidCustomer();
+            customer.setLastName(lastName);
+            customerService.createCustomer(customer);
+        }
+
+        List<Customer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CustomerPage page = customerService.getCustomersPage(cursor, 2);
+            assertTrue(page.getCustomers().size() <= 2);
+            seen.addAll(page.getCustomers());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().map(Customer::getId).distinct().count());
+        assertEquals(List.of("Adams", "Adams", "Brown", "Brown", "Clark"), seen.stream().map(Customer::getLastName).toList());
+    }
+
+    @Test
+    void testGetCustomersPage_SelectedFields() {
+        for (String lastName : List.of("Brown", "Adams", "Clark")) {
+            Customer customer = createValidCustomer();
+            customer.setLastName(lastName);
+            customerService.createCustomer(customer);
+        }
+
+        CustomerPage first = customerService.getCustomersPage(null, 2, EnumSet.of(CustomerField.EMAIL));
+        CustomerPage second = customerService.getCustomersPage(first.getNextCursor(), 2, EnumSet.of(CustomerField.EMAIL));
+
+        assertEquals(2, first.getCustomers().size());
+        assertNotNull(first.getCustomers().get(0).getEmail());
+        assertNull(first.getCustomers().get(0).getFirstName());
+        assertEquals(List.of("Clark"), second.getCustomers().stream().map(Customer::getLastName).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testSearchCustomers_FollowsWrites() {
+        Customer customer = createValidCustomer();
+        customer.setLastName("Zimmermann");
+        Customer created = customerService.createCustomer(customer);
+
+        assertEquals(created.getId(), customerService.searchCustomers("zimmer", null).get(0).getId());
+
+        CustomerPatchRequest patch = new CustomerPatchRequest();
+        patch.setLastName("Young");
+        customerService.patchCustomer(created.getId(), patch);
+        assertTrue(customerService.searchCustomers("zimmer", null).isEmpty());
+        assertEquals(1, customerService.searchCustomers("young", null).size());
+
+        customerService.deleteCustomer(created.getId());
+        assertTrue(customerService.searchCustomers("young", null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> customerService.searchCustomers(" ", null));
+    }
+
+    @Test
+    void testGetCustomersPage_LimitIsCapped() {
+        customerService.createCustomer(createValidCustomer());
+
+        CustomerPage page = customerService.getCustomersPage(null, Integer.MAX_VALUE);
+
+        assertEquals(1, page.getCustomers().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testGetCustomersPage_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomersPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomersPage("garbage", 10));
+    }
+
+    @Test
+    void testExportCustomers() {
+        customerService.createCustomer(createValidCustomer());
+        customerService.createCustomer(createValidCustomer());
+        customerService.createCustomer(createValidCustomer());
+
+        List<Customer> exported = new ArrayList<>();
+        customerService.exportCustomers(exported::add);
+
+        assertEquals(3, exported.size());
+    }
+
     @Test
     void testUpdateCustomer() {
         Customer customer = createValidCustomer();
@@ -122,20 +347,66 @@ class CustomerServiceTest extends BaseTest {
         assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(nonExistentId, customer));
     }
 
+    @Test
+    void testUpdateCustomer_StaleVersion() {
+        Customer savedCustomer = customerService.createCustomer(createValidCustomer());
+        Long staleVersion = savedCustomer.getVersion();
+        Customer updatedCustomer = customerService.updateCustomer(savedCustomer.getId(), savedCustomer);
+        assertEquals(staleVersion + 1, updatedCustomer.getVersion());
+
+        savedCustomer.setVersion(staleVersion);
+        savedCustomer.setFirstName("Lost");
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> customerService.updateCustomer(savedCustomer.getId(), savedCustomer));
+        assertEquals("John", customerService.getCustomerById(savedCustomer.getId()).getFirstName());
+    }
+
+    @Test
+    void testPatchCustomer() {
+        Customer savedCustomer = customerService.createCustomer(createValidCustomer());
+        CustomerPatchRequest patch = new CustomerPatchRequest();
+        patch.setLastName("Smith");
+        patch.setDateOfBirth(LocalDate.now().minusYears(60));
+        patch.setVersion(savedCustomer.getVersion());
+
+        Customer patchedCustomer = customerService.patchCustomer(savedCustomer.getId(), patch);
+
+        assertEquals("John", patchedCustomer.getFirstName());
+        assertEquals("Smith", patchedCustomer.getLastName());
+        assertEquals(savedCustomer.getEmail(), patchedCustomer.getEmail());
+        assertEquals(savedCustomer.getVersion() + 1, patchedCustomer.getVersion());
+        assertEquals("Smith", customerService.getCustomerById(savedCustomer.getId()).getLastName());
+        assertEquals(60.0, customerService.getAverageAge());
+    }
+
+    @Test
+    void testPatchCustomer_Failures() {
+        Customer savedCustomer = customerService.createCustomer(createValidCustomer());
+        CustomerPatchRequest patch = new CustomerPatchRequest();
+
+        assertThrows(InvalidCustomerDataException.class, () -> customerService.patchCustomer(savedCustomer.getId(), patch));
+
+        patch.setFirstName("Jane");
+        patch.setVersion(savedCustomer.getVersion() + 1);
+        assertThrows(OptimisticLockingFailureException.class, () -> customerService.patchCustomer(savedCustomer.getId(), patch));
+        assertThrows(CustomerNotFoundException.class, () -> customerService.patchCustomer(UUID.randomUUID(), patch));
+    }
+
     @Test
     void testDeleteCustomer() {
         Customer customer = createValidCustomer();
         Customer savedCustomer = customerService.createCustomer(customer);
 
-        customerService.deleteCustomer(savedCustomer.getId());
+        assertTrue(customerService.deleteCustomer(savedCustomer.getId()));
 
-        assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(savedCustomer.getId()));
+        assertTrue(customerService.findCustomerById(savedCustomer.getId()).isEmpty());
+        assertEquals(0, customerService.getAgeDistribution().getCount());
     }
 
     @Test
     void testDeleteCustomer_NotFound() {
         UUID nonExistentId = UUID.randomUUID();
-        assertThrows(CustomerNotFoundException.class, () -> customerService.deleteCustomer(nonExistentId));
+        assertFalse(customerService.deleteCustomer(nonExistentId));
     }
 
     @Test
@@ -152,6 +423,29 @@ class CustomerServiceTest extends BaseTest {
         assertEquals(35.0, averageAge, 0.1);
     }
 
+    @Test
+    void testGetAverageAge_BirthdayNotYetReached() {
+        Customer customer = createValidCustomer();
+        customer.setDateOfBirth(LocalDate.now().minusYears(30).plusDays(1));
+        customerService.createCustomer(customer);
+
+        assertEquals(29.0, customerService.getAverageAge());
+    }
+
+    @Test
+    void testGetAverageAge_FollowsUpdatesAndDeletes() {
+        Customer customer = createValidCustomer();
+        customer.setDateOfBirth(LocalDate.now().minusYears(30));
+        Customer savedCustomer = customerService.createCustomer(customer);
+
+        savedCustomer.setDateOfBirth(LocalDate.now().minusYears(50));
+        customerService.updateCustomer(savedCustomer.getId(), savedCustomer);
+        assertEquals(50.0, customerService.getAverageAge());
+
+        customerService.deleteCustomer(savedCustomer.getId());
+        assertEquals(0.0, customerService.getAverageAge());
+    }
+
     @Test
     void testGetCustomersBetweenAges() {
         Customer customer1 = createValidCustomer();
@@ -170,6 +464,121 @@ class CustomerServiceTest extends BaseTest {
         assertEquals(1, customers.size());
     }
 
+    @Test
+    void testGetCustomersBetweenAges_BirthdayBoundaries() {
+        LocalDate today = LocalDate.now();
+        Customer turnsThirtyToday = createValidCustomer();
+        turnsThirtyToday.setDateOfBirth(today.minusYears(30));
+        customerService.createCustomer(turnsThirtyToday);
+
+        Customer turnsThirtyTomorrow = createValidCustomer();
+        turnsThirtyTomorrow.setDateOfBirth(today.minusYears(30).plusDays(1));
+        customerService.createCustomer(turnsThirtyTomorrow);
+
+        Customer turnsFortyOneTomorrow = createValidCustomer();
+        turnsFortyOneTomorrow.setDateOfBirth(today.minusYears(41).plusDays(1));
+        customerService.createCustomer(turnsFortyOneTomorrow);
+
+        Customer turnedFortyOneToday = createValidCustomer();
+        turnedFortyOneToday.setDateOfBirth(today.minusYears(41));
+        customerService.createCustomer(turnedFortyOneToday);
+
+        List<UUID> ids = customerService.getCustomersBetweenAges(30, 40).stream().map(Customer::getId).toList();
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(turnsThirtyToday.getId()));
+        assertTrue(ids.contains(turnsFortyOneTomorrow.getId()));
+        assertEquals(2, customerService.countCustomersBetweenAges(30, 40));
+    }
+
+    @Test
+    void testGetCustomersBetweenAges_Paged() {
+        for (int i = 0; i < 5; i++) {
+            Customer customer = createValidCustomer();
+            customer.setDateOfBirth(LocalDate.now().minusYears(30).minusDays(i));
+            customerService.createCustomer(customer);
+        }
+
+        List<Customer> firstPage = customerService.getCustomersBetweenAges(30, 30, PageRequest.of(0, 2));
+        List<Customer> lastPage = customerService.getCustomersBetweenAges(30, 30, PageRequest.of(2, 2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, lastPage.size());
+        assertTrue(firstPage.get(0).getDateOfBirth().isBefore(firstPage.get(1).getDateOfBirth()));
+        assertEquals(5, customerService.countCustomersBetweenAges(30, 30));
+    }
+
+    @Test
+    void testCreateCustomers() {
+        Customer existing = customerService.createCustomer(createValidCustomer());
+        List<Customer> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(createValidCustomer());
+        }
+        Customer invalidEmail = createValidCustomer();
+        invalidEmail.setEmail("not-an-email");
+        batch.add(invalidEmail);
+        Customer missingPhone = createValidCustomer();
+        missingPhone.setPhoneNumber(null);
+        batch.add(missingPhone);
+        Customer repeated = createValidCustomer();
+        repeated.setEmail(batch.get(0).getEmail());
+        batch.add(repeated);
+        Customer alreadyStored = createValidCustomer();
+        alreadyStored.setEmail(existing.getEmail());
+        batch.add(alreadyStored);
+
+        CustomerBatchResult result = customerService.createCustomers(batch);
+
+        assertEquals(1200, result.getCreated());
+        assertEquals(4, result.getFailed());
+        assertEquals(1204, result.getItems().size());
+        assertEquals(CustomerBatchItemResult.Status.CREATED, result.getItems().get(0).getStatus());
+        assertNotNull(result.getItems().get(0).getId());
+        assertEquals(CustomerBatchItemResult.Status.INVALID, result.getItems().get(1200).getStatus());
+        assertEquals("Email should be valid", result.getItems().get(1200).getMessage());
+        assertEquals(CustomerBatchItemResult.Status.INVALID, result.getItems().get(1201).getStatus());
+        assertEquals("Phone number is required", result.getItems().get(1201).getMessage());
+        assertEquals(CustomerBatchItemResult.Status.DUPLICATE_EMAIL, result.getItems().get(1202).getStatus());
+        assertEquals(CustomerBatchItemResult.Status.DUPLICATE_EMAIL, result.getItems().get(1203).getStatus());
+        assertEquals(1201, customerRepository.count());
+        assertEquals(1201, customerService.getAgeDistribution().getCount());
+    }
+
+    @Test
+    void testCreateCustomers_IgnoresClientIds() {
+        Customer existing = customerService.createCustomer(createValidCustomer());
+        Customer customer = createValidCustomer();
+        customer.setId(existing.getId());
+
+        CustomerBatchResult result = customerService.createCustomers(List.of(customer));
+
+        assertEquals(1, result.getCreated());
+        assertNotEquals(existing.getId(), result.getItems().get(0).getId());
+        assertEquals(2, customerRepository.count());
+    }
+
+    @Test
+    void testCreateCustomers_ChunkConflictFallsBackToSingleInserts() {
+        CustomerRepository repository = mock(CustomerRepository.class);
+        CustomerStatistics statistics = mock(CustomerStatistics.class);
+        CustomerServiceImpl service = new CustomerServiceImpl(repository, statistics, mock(CustomerSearchIndex.class), mock(CustomerCache.class),
+                new CustomerValidator(Validation.buildDefaultValidatorFactory().getValidator()),
+                mock(PlatformTransactionManager.class), 50, 500, 10, 10, 100);
+        Customer first = createValidCustomer();
+        Customer second = createValidCustomer();
+        when(repository.findExistingEmails(any())).thenReturn(Set.of());
+        doThrow(new DataIntegrityViolationException("chunk")).when(repository).insertAll(List.of(first, second));
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"customers_email_key\""))
+                .when(repository).insertAll(List.of(second));
+
+        CustomerBatchResult result = service.createCustomers(List.of(first, second));
+
+        assertEquals(CustomerBatchItemResult.Status.CREATED, result.getItems().get(0).getStatus());
+        assertEquals(CustomerBatchItemResult.Status.DUPLICATE_EMAIL, result.getItems().get(1).getStatus());
+        verify(repository).insertAll(List.of(first));
+        verify(statistics, times(1)).recordAdded(first.getDateOfBirth());
+    }
+
     private Customer createValidCustomer() {
         Customer customer = new Customer();
         customer.setFirstName("John");
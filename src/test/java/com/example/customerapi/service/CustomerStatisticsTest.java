@@ -0,0 +1,224 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.repository.CustomerRepository;
+import com.example.customerapi.repository.CustomerRepositoryCustom.BirthDateCounts;
+import com.example.customerapi.repository.CustomerRepositoryCustom.TransactionSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerStatisticsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerStatistics customerStatistics;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (AutoCloseable mocks = MockitoAnnotations.openMocks(this)) {
+            when(customerRepository.countByDateOfBirth()).thenReturn(birthDateCounts(Map.of(), "1:1:"));
+            customerStatistics = new CustomerStatistics(customerRepository, transactionManager);
+            customerStatistics.load();
+        }
+    }
+
+    @Test
+    void testEmptyDistribution() {
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+
+        assertEquals(0, distribution.getCount());
+        assertEquals(0.0, distribution.getAverage());
+        assertEquals(0.0, distribution.getMedian());
+    }
+
+    @Test
+    void testAgesAreCalendarExact() {
+        customerStatistics.recordAdded(TODAY.minusYears(30));
+        customerStatistics.recordAdded(TODAY.minusYears(30).plusDays(1));
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+
+        assertEquals(1, distribution.getCount(30));
+        assertEquals(1, distribution.getCount(29));
+        assertEquals(29.5, distribution.getAverage());
+    }
+
+    @Test
+    void testLeapDayBirthday() {
+        customerStatistics.recordAdded(LocalDate.of(2000, 2, 29));
+
+        assertEquals(24, customerStatistics.getAgeDistribution(LocalDate.of(2025, 2, 28)).getMax());
+        assertEquals(25, customerStatistics.getAgeDistribution(LocalDate.of(2025, 3, 1)).getMax());
+    }
+
+    @Test
+    void testSummaryStatistics() {
+        for (int age = 1; age <= 100; age++) {
+            customerStatistics.recordAdded(TODAY.minusYears(age));
+        }
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+
+        assertEquals(100, distribution.getCount());
+        assertEquals(1, distribution.getMin());
+        assertEquals(100, distribution.getMax());
+        assertEquals(50.5, distribution.getAverage());
+        assertEquals(50.5, distribution.getMedian());
+        assertEquals(90, distribution.getPercentile(90));
+        assertEquals(99, distribution.getPercentile(99));
+    }
+
+    @Test
+    void testRecordChangedAndRemoved() {
+        LocalDate dateOfBirth = TODAY.minusYears(40);
+        customerStatistics.recordAdded(dateOfBirth);
+        customerStatistics.recordChanged(dateOfBirth, TODAY.minusYears(20));
+
+        assertEquals(20.0, customerStatistics.getAgeDistribution(TODAY).getAverage());
+
+        customerStatistics.recordRemoved(TODAY.minusYears(20));
+
+        assertEquals(0, customerStatistics.getAgeDistribution(TODAY).getCount());
+    }
+
+    @Test
+    void testReconcileReplacesDriftedCounters() {
+        customerStatistics.recordAdded(TODAY.minusYears(10));
+        when(customerRepository.countByDateOfBirth())
+                .thenReturn(birthDateCounts(Map.of(TODAY.minusYears(50), 3L), "1:1:"));
+
+        customerStatistics.reconcile();
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+        assertEquals(3, distribution.getCount());
+        assertEquals(50.0, distribution.getAverage());
+    }
+
+    @Test
+    void testChangesDuringReconcileAreKept() {
+        when(customerRepository.countByDateOfBirth()).thenAnswer(invocation -> {
+            customerStatistics.recordAdded(TODAY.minusYears(20));
+            return birthDateCounts(Map.of(TODAY.minusYears(50), 1L), "1:1:");
+        });
+
+        customerStatistics.reconcile();
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+        assertEquals(2, distribution.getCount());
+        assertEquals(1, distribution.getCount(20));
+    }
+
+    @Test
+    void testWriteCommittedBeforeReconcileSnapshotIsNotCountedTwice() {
+        List<TransactionSynchronization> transaction = recordInTransaction(100,
+                () -> customerStatistics.recordAdded(TODAY.minusYears(20)));
+        when(customerRepository.countByDateOfBirth()).thenAnswer(invocation -> {
+            // Commits after the reconcile started collecting changes, but before the counts were read
+            commit(transaction);
+            return birthDateCounts(Map.of(TODAY.minusYears(20), 1L), "101:101:");
+        });
+
+        customerStatistics.reconcile();
+
+        assertEquals(1, customerStatistics.getAgeDistribution(TODAY).getCount());
+    }
+
+    @Test
+    void testWriteCommittedAfterReconcileSnapshotIsReplayed() {
+        List<TransactionSynchronization> transaction = recordInTransaction(105, () -> {
+            customerStatistics.recordAdded(TODAY.minusYears(20));
+            customerStatistics.recordAdded(TODAY.minusYears(30));
+        });
+        when(customerRepository.countByDateOfBirth()).thenAnswer(invocation -> {
+            commit(transaction);
+            // Transaction 105 was still running when the counts were read
+            return birthDateCounts(Map.of(TODAY.minusYears(50), 1L), "100:110:105");
+        });
+
+        customerStatistics.reconcile();
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+        assertEquals(3, distribution.getCount());
+        assertEquals(1, distribution.getCount(20));
+        assertEquals(1, distribution.getCount(30));
+        verify(customerRepository, times(1)).currentTransactionId();
+    }
+
+    @Test
+    void testBirthDatesOutsideTrackedDaysAreLeftOut() {
+        customerStatistics.recordAdded(LocalDate.of(1750, 1, 1));
+        customerStatistics.recordAdded(TODAY.minusYears(30));
+
+        AgeDistribution distribution = customerStatistics.getAgeDistribution(TODAY);
+
+        assertEquals(1, distribution.getCount());
+        assertEquals(30.0, distribution.getAverage());
+    }
+
+    @Test
+    void testChangesApplyOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            customerStatistics.recordAdded(TODAY.minusYears(30));
+            assertEquals(0, customerStatistics.getAgeDistribution(TODAY).getCount());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, customerStatistics.getAgeDistribution(TODAY).getCount());
+    }
+
+    @Test
+    void testDistributionIsReusedUntilSomethingChanges() {
+        customerStatistics.recordAdded(TODAY.minusYears(10));
+
+        AgeDistribution first = customerStatistics.getAgeDistribution(TODAY);
+        assertSame(first, customerStatistics.getAgeDistribution(TODAY));
+
+        customerStatistics.recordAdded(TODAY.minusYears(20));
+        assertNotSame(first, customerStatistics.getAgeDistribution(TODAY));
+    }
+
+    private List<TransactionSynchronization> recordInTransaction(long transactionId, Runnable writes) {
+        when(customerRepository.currentTransactionId()).thenReturn(transactionId);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            writes.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void commit(List<TransactionSynchronization> synchronizations) {
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static BirthDateCounts birthDateCounts(Map<LocalDate, Long> counts, String snapshot) {
+        return new BirthDateCounts(counts, TransactionSnapshot.parse(snapshot));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.customerapi.service;
+
+import com.example.customerapi.BaseTest;
+import com.example.customerapi.dataTransferObject.AuthResponse;
+import com.example.customerapi.exception.InvalidRefreshTokenException;
+import com.example.customerapi.model.User;
+import com.example.customerapi.repository.RefreshTokenRepository;
+import com.example.customerapi.repository.UserRepository;
+import com.example.customerapi.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest
+@TestPropertySource(properties = "jwt.refresh-token.expiration=P1D")
+class RefreshTokenServiceTest extends BaseTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = new User();
+        user.setUsername("refreshuser");
+        user.setPassword("StrongPassword123!");
+        user = userService.saveUser(user);
+    }
+
+    @Test
+    void testRefreshRotatesToken() {
+        String issued = refreshTokenService.issue("refreshuser");
+
+        AuthResponse refreshed = refreshTokenService.refresh(issued);
+
+        assertEquals("refreshuser", jwtUtil.extractUsername(refreshed.getToken()));
+        assertNotNull(refreshed.getRefreshToken());
+        assertNotEquals(issued, refreshed.getRefreshToken());
+        assertNotNull(refreshTokenService.refresh(refreshed.getRefreshToken()).getToken());
+    }
+
+    @Test
+    void testStoresOnlyDigest() {
+        String issued = refreshTokenService.issue("refreshuser");
+
+        assertEquals(1, refreshTokenRepository.count());
+        assertEquals(32, refreshTokenRepository.findAll().get(0).getTokenHash().length);
+        assertFalse(new String(refreshTokenRepository.findAll().get(0).getTokenHash()).contains(issued));
+    }
+
+    @Test
+    void testReuseRevokesFamily() {
+        String issued = refreshTokenService.issue("refreshuser");
+        String rotated = refreshTokenService.refresh(issued).getRefreshToken();
+        String otherSession = refreshTokenService.issue("refreshuser");
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(issued));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(rotated));
+        assertNotNull(refreshTokenService.refresh(otherSession).getToken());
+    }
+
+    @Test
+    void testUnknownOrMissingToken() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh("unknown"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(null));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(""));
+    }
+
+    @Test
+    void testExpiredToken() {
+        String issued = refreshTokenService.issue("refreshuser");
+        refreshTokenRepository.findAll().forEach(token -> {
+            token.setExpiresAt(Instant.now().minus(Duration.ofMinutes(1)));
+            refreshTokenRepository.save(token);
+        });
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(issued));
+
+        refreshTokenService.purgeExpired();
+        assertEquals(0, refreshTokenRepository.count());
+    }
+
+    @Test
+    void testChangedUserRevokesToken() {
+        String issued = refreshTokenService.issue("refreshuser");
+        user.setPassword("AnotherPassword456!");
+        userService.saveUser(user);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(issued));
+    }
+}
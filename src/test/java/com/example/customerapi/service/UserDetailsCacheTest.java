@@ -0,0 +1,83 @@
+package com.example.customerapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    private UserDetailsCache userDetailsCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testLoadsEachUserOnce() {
+        userDetailsCache.get("testuser", this::load);
+        UserDetails cached = userDetailsCache.get("testuser", this::load);
+
+        assertEquals("testuser", cached.getUsername());
+        assertEquals("hash", cached.getPassword());
+        assertEquals(1, loads.get());
+        assertEquals(1, userDetailsCache.stats().hitCount());
+        assertEquals(1, userDetailsCache.stats().missCount());
+    }
+
+    @Test
+    void testInvalidateReloadsUser() {
+        userDetailsCache.get("testuser", this::load);
+        userDetailsCache.invalidate("testuser");
+        userDetailsCache.get("testuser", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testUnknownUsersAreNotCached() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("nobody", username -> {
+                loads.incrementAndGet();
+                throw new UsernameNotFoundException(username);
+            }));
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testErasingCredentialsDoesNotAffectCachedEntry() {
+        UserDetails first = userDetailsCache.get("testuser", this::load);
+        ((CredentialsContainer) first).eraseCredentials();
+
+        assertNull(first.getPassword());
+        assertEquals("hash", userDetailsCache.get("testuser", this::load).getPassword());
+    }
+
+    @Test
+    void testEntriesExpireAfterMaxStaleness() {
+        UserDetailsCache expiring = new UserDetailsCache(100, Duration.ZERO);
+
+        expiring.get("testuser", this::load);
+        expiring.get("testuser", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private UserDetails load(String username) {
+        loads.incrementAndGet();
+        return new User(username, "hash", new ArrayList<>());
+    }
+}
@@ -3,16 +3,20 @@ package com.example.customerapi.service;
 import com.example.customerapi.BaseTest;
 import com.example.customerapi.model.User;
 import com.example.customerapi.repository.UserRepository;
+import com.example.customerapi.security.UserTokenVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
@@ -29,6 +33,12 @@ class UserServiceTest extends BaseTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserTokenVersions userTokenVersions;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -46,6 +56,80 @@ class UserServiceTest extends BaseTest {
         assertEquals("testuser", userDetails.getUsername());
     }
 
+    @Test
+    void testLoadUserByUsername_ServedFromCache() {
+        User user = new User();
+        user.setUsername("cacheduser");
+        user.setPassword("StrongPassword123!");
+        userService.saveUser(user);
+
+        userService.loadUserByUsername("cacheduser");
+        long hits = userDetailsCache.stats().hitCount();
+        userService.loadUserByUsername("cacheduser");
+
+        assertEquals(hits + 1, userDetailsCache.stats().hitCount());
+    }
+
+    @Test
+    void testSaveUser_InvalidatesCachedUser() {
+        User user = new User();
+        user.setUsername("changeduser");
+        user.setPassword("StrongPassword123!");
+        User saved = userService.saveUser(user);
+        userService.loadUserByUsername("changeduser");
+
+        saved.setPassword("AnotherPassword456!");
+        userService.saveUser(saved);
+
+        UserDetails userDetails = userService.loadUserByUsername("changeduser");
+        assertTrue(passwordEncoder.matches("AnotherPassword456!", userDetails.getPassword()));
+    }
+
+    @Test
+    void testLoadUserByUsername_RoleAsAuthority() {
+        User user = new User();
+        user.setUsername("adminuser");
+        user.setPassword("StrongPassword123!");
+        user.setRole("ADMIN");
+        userService.saveUser(user);
+
+        UserDetails userDetails = userService.loadUserByUsername("adminuser");
+        assertEquals(List.of("ROLE_ADMIN"),
+                userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testSaveUser_BumpsTokenVersion() {
+        User user = new User();
+        user.setUsername("versioneduser");
+        user.setPassword("StrongPassword123!");
+        User saved = userService.saveUser(user);
+        long initialVersion = saved.getTokenVersion();
+
+        saved.setPassword("AnotherPassword456!");
+        User changed = userService.saveUser(saved);
+
+        assertEquals(initialVersion + 1, changed.getTokenVersion());
+        assertFalse(userTokenVersions.isCurrent("versioneduser", initialVersion));
+        assertTrue(userTokenVersions.isCurrent("versioneduser", changed.getTokenVersion()));
+    }
+
+    @Test
+    void testUpdatePassword_KeepsTokenVersion() {
+        User user = new User();
+        user.setUsername("rehasheduser");
+        user.setPassword("StrongPassword123!");
+        User saved = userService.saveUser(user);
+        UserDetails userDetails = userService.loadUserByUsername("rehasheduser");
+        String rehashed = passwordEncoder.encode("StrongPassword123!");
+
+        UserDetails updated = userService.updatePassword(userDetails, rehashed);
+
+        assertEquals(rehashed, updated.getPassword());
+        assertEquals(rehashed, userService.loadUserByUsername("rehasheduser").getPassword());
+        assertEquals(saved.getTokenVersion(), userRepository.findByUsername("rehasheduser").orElseThrow().getTokenVersion());
+    }
+
     @Test
     void testLoadUserByUsername_UserNotFound() {
         assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("nonexistent"));
@@ -0,0 +1,42 @@
+package com.example.customerapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgeCalculatorTest {
+
+    @Test
+    void testBoundsMatchPeriodBetween() {
+        LocalDate[] todays = {
+                LocalDate.of(2024, 2, 29),
+                LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 12, 31),
+                LocalDate.of(2026, 1, 1)
+        };
+        for (LocalDate today : todays) {
+            for (LocalDate dob = today.minusYears(12); !dob.isAfter(today); dob = dob.plusDays(1)) {
+                int age = Period.between(dob, today).getYears();
+                for (int bound = 0; bound <= 12; bound++) {
+                    assertEquals(age >= bound, !dob.isAfter(AgeCalculator.latestBirthDateForAge(today, bound)),
+                            "min bound " + bound + " for " + dob + " on " + today);
+                    assertEquals(age <= bound, !dob.isBefore(AgeCalculator.earliestBirthDateForAge(today, bound)),
+                            "max bound " + bound + " for " + dob + " on " + today);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testExtremeAgesAreClamped() {
+        LocalDate today = LocalDate.of(2025, 6, 1);
+
+        assertDoesNotThrow(() -> AgeCalculator.earliestBirthDateForAge(today, Integer.MAX_VALUE));
+        assertDoesNotThrow(() -> AgeCalculator.latestBirthDateForAge(today, Integer.MIN_VALUE));
+        assertTrue(AgeCalculator.earliestBirthDateForAge(today, Integer.MAX_VALUE).isBefore(LocalDate.of(1100, 1, 1)));
+    }
+}
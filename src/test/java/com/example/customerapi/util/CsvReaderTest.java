@@ -0,0 +1,62 @@
+package com.example.customerapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    private static final int MAX_RECORD_LENGTH = 20;
+
+    @Test
+    void testReadsPlainAndQuotedFields() throws IOException {
+        CsvReader reader = reader("a,b,c\n\"O\"\"Brien, Jr.\",,\"\"\n");
+
+        assertEquals(List.of("a", "b", "c"), reader.readRecord());
+        assertEquals(List.of("O\"Brien, Jr.", "", ""), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void testTracksRecordLinesAcrossLineBreaks() throws IOException {
+        CsvReader reader = reader("first\r\n\"multi\r\nline\"\rlast");
+
+        assertEquals(List.of("first"), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("multi\nline"), reader.readRecord());
+        assertEquals(2, reader.getRecordLine());
+        assertEquals(List.of("last"), reader.readRecord());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void testUnterminatedQuote() throws IOException {
+        CsvReader reader = reader("ok\n\"broken,field\n");
+
+        reader.readRecord();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::readRecord);
+        assertTrue(e.getMessage().contains("line 2"));
+    }
+
+    @Test
+    void testOverLongRecordIsSkippedToTheNextLine() throws IOException {
+        CsvReader reader = reader("ok\n" + "a,".repeat(20) + "\n\"" + "b".repeat(30) + "\nnext\n");
+
+        assertEquals(List.of("ok"), reader.readRecord());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::readRecord);
+        assertTrue(e.getMessage().contains("line 2"));
+        e = assertThrows(IllegalArgumentException.class, reader::readRecord);
+        assertTrue(e.getMessage().contains("line 3"));
+        assertEquals(List.of("next"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(new StringReader(csv), MAX_RECORD_LENGTH);
+    }
+}
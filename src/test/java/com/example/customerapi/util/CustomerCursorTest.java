@@ -0,0 +1,34 @@
+package com.example.customerapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        UUID id = UUID.randomUUID();
+        CustomerCursor cursor = new CustomerCursor("O'Brien-Smith", id);
+
+        CustomerCursor decoded = CustomerCursor.decode(cursor.encode());
+
+        assertEquals("O'Brien-Smith", decoded.getLastName());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void testEncodeIsUrlSafe() {
+        String token = new CustomerCursor("Ünal", UUID.randomUUID()).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testDecodeInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> CustomerCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> CustomerCursor.decode("Zm9v"));
+    }
+}